@@ -0,0 +1,108 @@
+import java.util.Arrays;
+
+/**
+ * Search state of an A* query on one thread, reused across queries. A generation stamp marks which
+ * entries belong to the current query, like the buffers of {@link BidirectionalBfs}, so nothing is
+ * cleared between queries. Open vertices wait in a binary heap of (estimated length, vertex) keys,
+ * and a vertex may sit in it more than once, older entries are skipped once it is closed.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+class AStarBuffers {
+    final int[] seen; //generation in which the vertex was reached
+    final int[] closed; //generation in which the vertex was expanded
+    final int[] distance;
+    final int[] parent;
+    final int[] bound; //lower bound to the target, computed once per query
+    private long[] heap = new long[64]; //binary min heap of estimated length << 32 | vertex
+    private int size;
+    int generation;
+
+    /*
+     * @param   n   number of vertex ids
+     */
+    AStarBuffers(int n) {
+        seen = new int[n];
+        closed = new int[n];
+        distance = new int[n];
+        parent = new int[n];
+        bound = new int[n];
+    }
+
+    /*
+     * starts a new query, forgetting every vertex and emptying the heap
+     */
+    void nextGeneration() {
+        generation++;
+        size = 0;
+        if (generation == 0) { //stamps wrapped around, old marks could look current
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    /*
+     * marks v as reached at distance d through the vertex from
+     */
+    void reach(int v, int d, int from) {
+        seen[v] = generation;
+        distance[v] = d;
+        parent[v] = from;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void push(int estimate, int v) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        long key = (long) estimate << 32 | v;
+        int i = size++;
+        while (i > 0 && heap[(i - 1) >>> 1] > key) {
+            heap[i] = heap[(i - 1) >>> 1];
+            i = (i - 1) >>> 1;
+        }
+        heap[i] = key;
+    }
+
+    /*
+     * @return vertex with the smallest estimated length, lowest id first among equals
+     */
+    int pop() {
+        long top = heap[0];
+        long last = heap[--size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return (int) top;
+    }
+
+    /*
+     * ids from the first vertex of the search to v, through parents
+     */
+    int[] pathTo(int v) {
+        int[] path = new int[distance[v] + 1];
+        int i = path.length - 1;
+        for (int u = v; u != -1; u = parent[u]) {
+            path[i--] = u;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,180 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * All pairs shortest paths of an unweighted, undirected graph, computed by running one
+ * breadth first search per source vertex. Sources are split across a fork-join pool so every
+ * core runs searches, giving O(n * (n + m)) total work instead of Floyd-Warshall's O(n^3).
+ *
+ * Searches run over a {@link CsrGraph} snapshot, using its vertex ids. For every source, the search
+ * produces the distance to each vertex and the first hop taken from the source to reach it,
+ * given as a slot (position) in the source's neighbor list.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class AllPairsBfs {
+
+    /**
+     * Value of distance for vertices that can not be reached from the source
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /**
+     * Receives the search results of one source. Buffers are reused by the caller once
+     * accept returns, so any data that should be kept must be copied out.
+     * Rows of different sources are delivered concurrently from different threads.
+     */
+    public interface RowSink {
+        /**
+         * @param source index of the source vertex
+         * @param distance distance from source to every vertex, {@link AllPairsBfs#UNREACHABLE} if not reachable
+         * @param firstHopSlot slot among the neighbors of source of the first hop towards every vertex, -1 for source and unreachable vertices
+         */
+        void accept(int source, int[] distance, int[] firstHopSlot);
+    }
+
+    private final CsrGraph<?> graph;
+
+    /*
+     * @param   graph   graph to search, neighbors are explored in the order it stores them
+     */
+    public AllPairsBfs(CsrGraph<?> graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Runs a search from every vertex on the common fork-join pool
+     *
+     * @param sink receives the results of each source
+     */
+    public void run(RowSink sink) {
+        run(sink, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs a search from every vertex on the given pool
+     *
+     * @param sink receives the results of each source
+     * @param pool pool to run the searches on
+     */
+    public void run(RowSink sink, ForkJoinPool pool) {
+        run(sink, 0, graph.size(), pool);
+    }
+
+    /**
+     * Runs a search from every vertex with an id from 'from' up to but not including 'to'
+     *
+     * @param sink receives the results of each source
+     * @param from first source id
+     * @param to id after the last source
+     * @param pool pool to run the searches on
+     */
+    public void run(RowSink sink, int from, int to, ForkJoinPool pool) {
+        if (from >= to) {
+            return;
+        }
+        //a few leaves per worker so uneven components still balance out
+        int leafSize = Math.max(1, (to - from) / (pool.getParallelism() * 8));
+        pool.invoke(new SourceRange(from, to, leafSize, sink));
+    }
+
+    /**
+     * Runs a search from every vertex in sources
+     *
+     * @param sink receives the results of each source
+     * @param sources ids of the source vertices
+     * @param pool pool to run the searches on
+     */
+    public void run(RowSink sink, int[] sources, ForkJoinPool pool) {
+        if (sources.length == 0) {
+            return;
+        }
+        int leafSize = Math.max(1, sources.length / (pool.getParallelism() * 8));
+        pool.invoke(new SourceRange(sources, 0, sources.length, leafSize, sink));
+    }
+
+    /**
+     * Breadth first search from source using caller supplied buffers, each of length n
+     *
+     * @param source index of the source vertex
+     * @param distance filled with distances from source
+     * @param firstHopSlot filled with first hop slots from source
+     * @param queue scratch space for the search frontier
+     */
+    public void search(int source, int[] distance, int[] firstHopSlot, int[] queue) {
+        Arrays.fill(distance, UNREACHABLE);
+        Arrays.fill(firstHopSlot, -1);
+        distance[source] = 0;
+
+        //neighbors of the source are their own first hop
+        int head = 0;
+        int tail = 0;
+        int start = graph.edgeStart(source);
+        for (int e = start, end = graph.edgeEnd(source); e < end; e++) {
+            int v = graph.edgeTarget(e);
+            if (distance[v] == UNREACHABLE) {
+                distance[v] = 1;
+                firstHopSlot[v] = e - start;
+                queue[tail++] = v;
+            }
+        }
+        //everything further away inherits the first hop of the vertex it was found from
+        while (head < tail) {
+            int u = queue[head++];
+            for (int e = graph.edgeStart(u), end = graph.edgeEnd(u); e < end; e++) {
+                int v = graph.edgeTarget(e);
+                if (distance[v] == UNREACHABLE) {
+                    distance[v] = distance[u] + 1;
+                    firstHopSlot[v] = firstHopSlot[u];
+                    queue[tail++] = v;
+                }
+            }
+        }
+    }
+
+    /*
+     * searches from a range of sources, splitting it in half until it is small enough.
+     * the range is of ids, or of positions in an array of ids if one is given
+     */
+    private class SourceRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] sources;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final RowSink sink;
+
+        SourceRange(int from, int to, int leafSize, RowSink sink) {
+            this(null, from, to, leafSize, sink);
+        }
+
+        SourceRange(int[] sources, int from, int to, int leafSize, RowSink sink) {
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.sink = sink;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > leafSize) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SourceRange(sources, from, mid, leafSize, sink), new SourceRange(sources, mid, to, leafSize, sink));
+                return;
+            }
+            //buffers are allocated once per leaf and reused for every source in it
+            int n = graph.size();
+            int[] distance = new int[n];
+            int[] firstHopSlot = new int[n];
+            int[] queue = new int[n];
+            for (int i = from; i < to; i++) {
+                int source = sources == null ? i : sources[i];
+                search(source, distance, firstHopSlot, queue);
+                sink.accept(source, distance, firstHopSlot);
+            }
+        }
+    }
+}
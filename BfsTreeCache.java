@@ -0,0 +1,105 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shortest path engine that searches the graph on demand instead of precomputing every pair.
+ * The first query from a vertex runs a breadth first search from it {@link ShortestPathTree},
+ * and the tree is kept in a bounded least recently used cache so later queries from (or to) the
+ * same vertex are answered without searching. Startup costs nothing and memory is bounded by
+ * the number of trees kept, each holding two ints per vertex.
+ * 
+ * @author jchen678 (jchen678@wisc.edu)
+ * 
+ */
+public class BfsTreeCache implements ShortestPathEngine {
+    private final CsrGraph<?> graph;
+    private final int maxTrees;
+    private final LinkedHashMap<Integer, ShortestPathTree> trees; //source id -> tree, in access order
+
+    /*
+     * @param   graph       graph to search
+     * @param   maxTrees    number of trees to keep before evicting the least recently used one
+     */
+    public BfsTreeCache(CsrGraph<?> graph, int maxTrees) {
+        if (maxTrees < 1) {
+            throw new IllegalArgumentException("cache must hold at least one tree: " + maxTrees);
+        }
+        this.graph = graph;
+        this.maxTrees = maxTrees;
+        this.trees = new LinkedHashMap<Integer, ShortestPathTree>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ShortestPathTree> eldest) {
+                return size() > BfsTreeCache.this.maxTrees;
+            }
+        };
+    }
+
+    @Override
+    public int distance(int from, int to) {
+        ShortestPathTree tree = cached(from);
+        if (tree != null) {
+            return tree.distance(to);
+        }
+        tree = cached(to);
+        if (tree != null) { //graph is undirected, so a tree of either end will do
+            return tree.distance(from);
+        }
+        return tree(from).distance(to);
+    }
+
+    @Override
+    public int[] path(int from, int to) {
+        ShortestPathTree tree = cached(from);
+        if (tree != null) {
+            return tree.pathTo(to);
+        }
+        tree = cached(to);
+        if (tree != null) {
+            return tree.pathFrom(from);
+        }
+        return tree(from).pathTo(to);
+    }
+
+    /**
+     * Gets the tree of a source, searching and caching it if it is not cached yet
+     * 
+     * @param source id of the source vertex
+     * @return tree of shortest paths from source
+     */
+    public ShortestPathTree tree(int source) {
+        ShortestPathTree tree = cached(source);
+        if (tree == null) {
+            //search outside the lock so queries from other sources are not held up
+            tree = ShortestPathTree.search(graph, source);
+            synchronized (trees) {
+                trees.put(source, tree);
+            }
+        }
+        return tree;
+    }
+
+    @Override
+    public ShortestPathTree tree(CsrGraph<?> graph, int source) {
+        return tree(source); //graph is the one this cache searches
+    }
+
+    /**
+     * @return number of trees currently cached
+     */
+    public int cachedTrees() {
+        synchronized (trees) {
+            return trees.size();
+        }
+    }
+
+    /*
+     * gets a cached tree, marking it as recently used
+     */
+    private ShortestPathTree cached(int source) {
+        synchronized (trees) {
+            return trees.get(source);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+import java.util.Arrays;
+
+/**
+ * Shortest path engine that answers every query with a bidirectional breadth first search,
+ * needing no precomputation at all. Searches grow one level at a time from both ends, always
+ * expanding whichever frontier is smaller, and stop at the level where the two meet.
+ *
+ * Visited marks, parents and frontiers live in buffers that each thread reuses across queries.
+ * A generation stamp marks which entries belong to the current query, so buffers are never cleared
+ * and a query only allocates its result.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class BidirectionalBfs implements ShortestPathEngine {
+    private final CsrGraph<?> graph;
+    private final ThreadLocal<Buffers> buffers;
+
+    /*
+     * @param   graph   graph to search
+     */
+    public BidirectionalBfs(CsrGraph<?> graph) {
+        this.graph = graph;
+        this.buffers = ThreadLocal.withInitial(() -> new Buffers(graph.size()));
+    }
+
+    @Override
+    public int distance(int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        Buffers b = buffers.get();
+        return search(b, from, to) ? b.length : UNREACHABLE;
+    }
+
+    @Override
+    public int[] path(int from, int to) {
+        if (from == to) {
+            return new int[] {from};
+        }
+        Buffers b = buffers.get();
+        if (!search(b, from, to)) {
+            return null;
+        }
+        //from ... meetFrom is read backwards through forward parents, meetTo ... to through backward parents
+        int[] path = new int[b.length + 1];
+        int i = b.distance[Buffers.FORWARD][b.meetFrom];
+        for (int v = b.meetFrom; v != -1; v = b.parent[Buffers.FORWARD][v]) {
+            path[i--] = v;
+        }
+        i = b.distance[Buffers.FORWARD][b.meetFrom] + 1;
+        for (int v = b.meetTo; v != -1; v = b.parent[Buffers.BACKWARD][v]) {
+            path[i++] = v;
+        }
+        return path;
+    }
+
+    /*
+     * runs the search, leaving the meeting edge and path length in the buffers
+     *
+     * @return true if from and to are connected
+     */
+    private boolean search(Buffers b, int from, int to) {
+        b.nextGeneration();
+        b.start(Buffers.FORWARD, from);
+        b.start(Buffers.BACKWARD, to);
+        b.length = UNREACHABLE;
+
+        while (b.head[Buffers.FORWARD] < b.tail[Buffers.FORWARD] && b.head[Buffers.BACKWARD] < b.tail[Buffers.BACKWARD]) {
+            int side = b.tail[Buffers.FORWARD] - b.head[Buffers.FORWARD] <= b.tail[Buffers.BACKWARD] - b.head[Buffers.BACKWARD]
+                    ? Buffers.FORWARD : Buffers.BACKWARD;
+            int other = 1 - side;
+            int[] queue = b.queue[side];
+            int[] distance = b.distance[side];
+            int[] parent = b.parent[side];
+            int[] seen = b.seen[side];
+            int[] otherSeen = b.seen[other];
+            int[] otherDistance = b.distance[other];
+
+            //expand the whole level, keeping the shortest meeting found in it
+            int levelEnd = b.tail[side];
+            while (b.head[side] < levelEnd) {
+                int u = queue[b.head[side]++];
+                for (int e = graph.edgeStart(u), end = graph.edgeEnd(u); e < end; e++) {
+                    int v = graph.edgeTarget(e);
+                    if (otherSeen[v] == b.generation) {
+                        int length = distance[u] + 1 + otherDistance[v];
+                        if (length < b.length) {
+                            b.length = length;
+                            b.meetFrom = side == Buffers.FORWARD ? u : v;
+                            b.meetTo = side == Buffers.FORWARD ? v : u;
+                        }
+                    }
+                    if (seen[v] != b.generation) {
+                        seen[v] = b.generation;
+                        distance[v] = distance[u] + 1;
+                        parent[v] = u;
+                        queue[b.tail[side]++] = v;
+                    }
+                }
+            }
+            if (b.length != UNREACHABLE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * search state of one thread, indexed by FORWARD (from the first vertex) and BACKWARD (from the second)
+     */
+    private static class Buffers {
+        static final int FORWARD = 0;
+        static final int BACKWARD = 1;
+
+        final int[][] seen; //generation in which the vertex was reached
+        final int[][] distance;
+        final int[][] parent;
+        final int[][] queue;
+        final int[] head = new int[2];
+        final int[] tail = new int[2];
+        int generation;
+        int length; //length of the shortest path found
+        int meetFrom; //endpoint of the meeting edge on the forward side
+        int meetTo; //endpoint of the meeting edge on the backward side
+
+        Buffers(int n) {
+            seen = new int[2][n];
+            distance = new int[2][n];
+            parent = new int[2][n];
+            queue = new int[2][n];
+        }
+
+        void nextGeneration() {
+            generation++;
+            if (generation == 0) { //stamps wrapped around, old marks could look current
+                Arrays.fill(seen[FORWARD], 0);
+                Arrays.fill(seen[BACKWARD], 0);
+                generation = 1;
+            }
+        }
+
+        void start(int side, int vertex) {
+            seen[side][vertex] = generation;
+            distance[side][vertex] = 0;
+            parent[side][vertex] = -1;
+            queue[side][0] = vertex;
+            head[side] = 0;
+            tail[side] = 1;
+        }
+    }
+}
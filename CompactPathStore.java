@@ -0,0 +1,424 @@
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Compact storage of all pairs shortest path data, replacing an int[][] distance matrix
+ * and a String[][] next hop matrix (12 bytes per pair plus row headers).
+ *
+ * Distances are symmetric, so only the lower triangle is stored (row i holds j < i), using a
+ * single byte per pair unless a distance is longer than 254 edges. Next hops are not symmetric
+ * and are stored for every pair, not as vertex ids but as the slot of the hop in the neighbor
+ * list of the vertex it leaves from. Slots are bounded by the largest degree, so they take a
+ * byte per pair for degrees under 255. A typical word graph costs 1.5 bytes per pair.
+ *
+ * When words are appended to the graph, {@link #extend(CompactPathStore, CsrGraph)} updates
+ * only the pairs whose paths go through the new vertices, and when edges or vertices are removed,
+ * {@link #removeEdges(CompactPathStore, CsrGraph, int[][])} only searches again from the sources whose paths used them.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class CompactPathStore implements ShortestPathEngine {
+
+    private final CsrGraph<?> graph; //decodes next hop slots back into vertex ids
+    private final PackedRows distances; //lower triangle, [larger id][smaller id]
+    private final PackedRows nextHops; //[from][to], slot of next hop among the neighbors of from
+
+    private CompactPathStore(CsrGraph<?> graph, PackedRows distances, PackedRows nextHops) {
+        this.graph = graph;
+        this.distances = distances;
+        this.nextHops = nextHops;
+    }
+
+    /**
+     * Computes shortest paths between all pairs of vertices with {@link AllPairsBfs} and stores them compactly
+     *
+     * @param graph graph to compute paths of
+     * @return store holding the paths of every pair
+     */
+    public static CompactPathStore build(CsrGraph<?> graph) {
+        int hopWidth = PackedRows.widthFor(graph.maxDegree() - 1);
+
+        //start with single byte distances, widening only if a longer path shows up
+        int distanceWidth = 1;
+        while (true) {
+            CompactPathStore store = new CompactPathStore(graph,
+                    new PackedRows(graph.size(), distanceWidth), new PackedRows(graph.size(), hopWidth));
+            AtomicBoolean overflow = new AtomicBoolean(false);
+            store.fill(0, graph.size(), overflow);
+            if (!overflow.get()) {
+                return store;
+            }
+            distanceWidth *= 2;
+        }
+    }
+
+    /**
+     * Updates the paths of a store after vertices and edges were added to its graph, without searching
+     * from every vertex again. New vertices get a search of their own. For every old vertex, only the
+     * vertices reached through the new edges are searched, seeded from the old distances, so the cost
+     * follows the part of the graph whose paths changed instead of the whole graph.
+     *
+     * Vertices of the old graph must keep their ids, and their neighbors must start with the neighbors
+     * they had in the old graph followed only by new vertices, as is the case when words are appended to
+     * a {@link Graph}. Otherwise, or if a distance or degree no longer fits the store, every pair is
+     * computed again.
+     *
+     * The old store is not changed and still answers queries on the old graph, but should not be extended again.
+     *
+     * @param old store of the old graph
+     * @param graph old graph with vertices and edges appended
+     * @return store holding the paths of every pair of the new graph
+     */
+    public static CompactPathStore extend(CompactPathStore old, CsrGraph<?> graph) {
+        int n = old.size();
+        int total = graph.size();
+        if (!appendsTo(graph, old.graph) || PackedRows.widthFor(graph.maxDegree() - 1) > old.nextHops.width()) {
+            return build(graph);
+        }
+        //rows are shared with the old store until they have to change
+        CompactPathStore store = new CompactPathStore(graph,
+                new PackedRows(old.distances, total), new PackedRows(old.nextHops, total));
+        AtomicBoolean overflow = new AtomicBoolean(false);
+        store.fill(n, total, overflow);
+        if (total > n && !overflow.get()) {
+            ThreadLocal<RepairBuffers> buffers = ThreadLocal.withInitial(() -> new RepairBuffers(total));
+            ForkJoinPool.commonPool().submit(() ->
+                    IntStream.range(0, n).parallel().forEach(source -> store.repair(old, source, buffers.get(), overflow))).join();
+        }
+        return overflow.get() ? build(graph) : store;
+    }
+
+    /*
+     * checks that graph only appends vertices and edges to old vertices of base
+     */
+    private static boolean appendsTo(CsrGraph<?> graph, CsrGraph<?> base) {
+        int n = base.size();
+        if (graph.size() < n) {
+            return false;
+        }
+        for (int v = 0; v < n; v++) {
+            if (!Objects.equals(base.vertex(v), graph.vertex(v)) || graph.degree(v) < base.degree(v)) {
+                return false;
+            }
+            for (int slot = 0; slot < graph.degree(v); slot++) {
+                int neighbor = graph.neighbor(v, slot);
+                if (slot < base.degree(v) ? neighbor != base.neighbor(v, slot) : neighbor < n) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Updates the paths of a store after edges were removed from its graph. A removed edge (a, b) can only
+     * be on a shortest path from a source s if the old distances from s to a and to b differ by one, so only
+     * those sources are searched again and every other row is shared with the old store. Removing a vertex
+     * is removing all of its edges, its id is left unused.
+     *
+     * Vertices of the old graph must keep their ids in the new graph, as with {@link Graph#freeze(VertexIndex)}.
+     * If a distance no longer fits the store, every pair is computed again.
+     *
+     * The old store is not changed and still answers queries on the old graph.
+     *
+     * @param old store of the old graph
+     * @param graph old graph without the removed edges
+     * @param removedEdges ids of the two endpoints of every removed edge
+     * @return store holding the paths of every pair of the new graph
+     */
+    public static CompactPathStore removeEdges(CompactPathStore old, CsrGraph<?> graph, int[][] removedEdges) {
+        int n = old.size();
+        if (graph.size() != n || PackedRows.widthFor(graph.maxDegree() - 1) > old.nextHops.width()) {
+            return build(graph);
+        }
+        int[] affected = IntStream.range(0, n).parallel().filter(source -> {
+            for (int[] edge : removedEdges) {
+                int da = old.distance(source, edge[0]);
+                int db = old.distance(source, edge[1]);
+                if (da != UNREACHABLE && db != UNREACHABLE && Math.abs(da - db) == 1) {
+                    return true;
+                }
+            }
+            return false;
+        }).toArray();
+
+        CompactPathStore store = new CompactPathStore(graph,
+                new PackedRows(old.distances, n), new PackedRows(old.nextHops, n));
+        AtomicBoolean overflow = new AtomicBoolean(false);
+        store.fill(affected, overflow);
+        return overflow.get() ? build(graph) : store;
+    }
+
+    /*
+     * runs the searches from sources 'from' to 'to' and copies each row into the packed tables,
+     * setting overflow if a distance did not fit the distance width
+     */
+    private void fill(int from, int to, AtomicBoolean overflow) {
+        new AllPairsBfs(graph).run(rowWriter(overflow), from, to, ForkJoinPool.commonPool());
+    }
+
+    /*
+     * runs the searches from the given sources and copies each row into fresh rows of the packed tables
+     */
+    private void fill(int[] sources, AtomicBoolean overflow) {
+        new AllPairsBfs(graph).run(rowWriter(overflow), sources, ForkJoinPool.commonPool());
+    }
+
+    /*
+     * sink writing each search into new rows, setting overflow if a distance did not fit the distance width
+     */
+    private AllPairsBfs.RowSink rowWriter(AtomicBoolean overflow) {
+        int maxDistance = distances.maxValue();
+        return (source, distance, firstHopSlot) -> {
+            if (overflow.get()) {
+                return;
+            }
+            distances.allocateRow(source, source);
+            nextHops.allocateRow(source, graph.size());
+            for (int j = 0; j < source; j++) {
+                if (distance[j] != AllPairsBfs.UNREACHABLE) {
+                    if (distance[j] > maxDistance) {
+                        overflow.set(true);
+                        return;
+                    }
+                    distances.set(source, j, distance[j]);
+                }
+            }
+            for (int j = 0; j < firstHopSlot.length; j++) {
+                if (firstHopSlot[j] != -1) {
+                    nextHops.set(source, j, firstHopSlot[j]);
+                }
+            }
+        };
+    }
+
+    /*
+     * updates the rows of an old source after vertices were appended.
+     * any path that got shorter, or reaches a new vertex, enters the new vertices from an old vertex t
+     * over a path of old edges only, so its first new vertex is seeded with old distance(source, t) + 1.
+     * seeds are expanded in order of distance, merged with a breadth first queue, and a vertex is only
+     * revisited if its distance improves on the old one.
+     */
+    private void repair(CompactPathStore old, int source, RepairBuffers b, AtomicBoolean overflow) {
+        int n = old.size();
+        int total = graph.size();
+        b.nextGeneration();
+
+        int seedCount = 0;
+        for (int v = n; v < total; v++) {
+            for (int e = graph.edgeStart(v), end = graph.edgeEnd(v); e < end; e++) {
+                int t = graph.edgeTarget(e);
+                if (t >= n) {
+                    continue;
+                }
+                int dt = old.distance(source, t);
+                if (dt == UNREACHABLE) {
+                    continue;
+                }
+                int hop = t == source ? slotOf(source, v) : old.nextHops.get(source, t);
+                if (dt + 1 < b.current(old, source, v)) {
+                    b.set(v, dt + 1, hop);
+                }
+            }
+            if (b.marked[v] == b.generation) {
+                b.seeds[seedCount++] = (long) b.distance[v] << 32 | v;
+            }
+        }
+        Arrays.sort(b.seeds, 0, seedCount);
+
+        int head = 0;
+        int tail = 0;
+        int nextSeed = 0;
+        while (nextSeed < seedCount || head < tail) {
+            int x;
+            if (head < tail && (nextSeed == seedCount || b.distance[b.queue[head]] <= (int) (b.seeds[nextSeed] >>> 32))) {
+                x = b.queue[head++];
+            } else {
+                x = (int) b.seeds[nextSeed++];
+            }
+            if (b.expanded[x] == b.generation) { //seed that was reached again through a shorter path
+                continue;
+            }
+            b.expanded[x] = b.generation;
+            for (int e = graph.edgeStart(x), end = graph.edgeEnd(x); e < end; e++) {
+                int w = graph.edgeTarget(e);
+                if (w != source && b.distance[x] + 1 < b.current(old, source, w)) {
+                    b.set(w, b.distance[x] + 1, b.hop[x]);
+                    b.queue[tail++] = w;
+                }
+            }
+        }
+
+        //changes below the old size are copied first, the old store still reads those entries
+        boolean changesOld = false;
+        boolean changesDistances = false;
+        for (int i = 0; i < b.changedCount; i++) {
+            int w = b.changed[i];
+            changesOld |= w < n;
+            changesDistances |= w < source;
+        }
+        if (changesOld) {
+            nextHops.copyRow(source, total);
+        } else if (b.changedCount > 0) {
+            nextHops.ensureRowLength(source, total);
+        }
+        if (changesDistances) {
+            distances.copyRow(source, source);
+        }
+        for (int i = 0; i < b.changedCount; i++) {
+            int w = b.changed[i];
+            nextHops.set(source, w, b.hop[w]);
+            //distances to new vertices are in their own rows, filled by their own searches
+            if (w < source) {
+                if (b.distance[w] > distances.maxValue()) {
+                    overflow.set(true);
+                    return;
+                }
+                distances.set(source, w, b.distance[w]);
+            }
+        }
+    }
+
+    /*
+     * slot of a neighbor among the neighbors of v, -1 if it is not a neighbor
+     */
+    private int slotOf(int v, int neighbor) {
+        for (int slot = graph.degree(v) - 1; slot >= 0; slot--) { //appended neighbors are at the end
+            if (graph.neighbor(v, slot) == neighbor) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int distance(int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        int d = from > to ? distances.get(from, to) : distances.get(to, from);
+        return d == -1 ? UNREACHABLE : d;
+    }
+
+    /**
+     * @param from id of the vertex the path leaves from
+     * @param to id of the vertex the path goes to
+     * @return id of the vertex after from on the shortest path, -1 if from equals to or there is no path
+     */
+    public int nextHop(int from, int to) {
+        int slot = nextHops.get(from, to);
+        return slot == -1 ? -1 : graph.neighbor(from, slot);
+    }
+
+    /**
+     * Follows next hops from the vertex with the higher id, so paths with equal length
+     * are picked the same way for both directions
+     */
+    @Override
+    public int[] path(int from, int to) {
+        boolean reverse = from < to;
+        int start = reverse ? to : from;
+        int end = reverse ? from : to;
+        int d = distance(start, end);
+        if (d == UNREACHABLE) {
+            return null;
+        }
+        int[] path = new int[d + 1];
+        path[0] = start;
+        for (int i = 1; i <= d; i++) {
+            path[i] = nextHop(path[i - 1], end);
+        }
+        if (reverse) {
+            for (int i = 0, j = d; i < j; i++, j--) {
+                int temp = path[i];
+                path[i] = path[j];
+                path[j] = temp;
+            }
+        }
+        return path;
+    }
+
+    @Override
+    public boolean answersDirectly() {
+        return true;
+    }
+
+    /*
+     * distances of the store, for writing it to a file {@link MappedPathIndex}
+     */
+    PackedRows distances() {
+        return distances;
+    }
+
+    /*
+     * next hop slots of the store, for writing it to a file {@link MappedPathIndex}
+     */
+    PackedRows nextHops() {
+        return nextHops;
+    }
+
+    /**
+     * @return number of vertices in the store
+     */
+    public int size() {
+        return graph.size();
+    }
+
+    /*
+     * search state of one thread while repairing rows, entries are only valid while marked with the current generation
+     */
+    private static class RepairBuffers {
+        final int[] marked; //generation in which distance and hop were changed
+        final int[] expanded; //generation in which the vertex was expanded
+        final int[] distance;
+        final int[] hop;
+        final int[] queue;
+        final int[] changed; //vertices changed in the current generation
+        final long[] seeds; //distance << 32 | vertex
+        int changedCount;
+        int generation;
+
+        RepairBuffers(int n) {
+            marked = new int[n];
+            expanded = new int[n];
+            distance = new int[n];
+            hop = new int[n];
+            queue = new int[n];
+            changed = new int[n];
+            seeds = new long[n];
+        }
+
+        void nextGeneration() {
+            generation++;
+            if (generation == 0) { //stamps wrapped around, old marks could look current
+                Arrays.fill(marked, 0);
+                Arrays.fill(expanded, 0);
+                generation = 1;
+            }
+            changedCount = 0;
+        }
+
+        /*
+         * best known distance from source to v, the old one unless it was changed
+         */
+        int current(CompactPathStore old, int source, int v) {
+            if (marked[v] == generation) {
+                return distance[v];
+            }
+            return v < old.size() ? old.distance(source, v) : UNREACHABLE;
+        }
+
+        void set(int v, int d, int h) {
+            if (marked[v] != generation) {
+                marked[v] = generation;
+                changed[changedCount++] = v;
+            }
+            distance[v] = d;
+            hop[v] = h;
+        }
+    }
+}
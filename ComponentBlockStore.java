@@ -0,0 +1,196 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * All pairs shortest path data stored as one block per connected component, instead of one table over
+ * every pair of vertices. Pairs in different components never have a path, so only the blocks on the
+ * diagonal are kept and memory follows the sum of the squared component sizes rather than n squared.
+ *
+ * Every component numbers its vertices from 0 in id order. Its block holds the lower triangle of
+ * distances and the next hop slot of every ordered pair in the packed layout of {@link CompactPathStore},
+ * with widths picked for that component alone. Searches only visit their own component and only touch
+ * buffers the size of it, so building costs the sum of component sizes times their edges.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class ComponentBlockStore implements ShortestPathEngine {
+    private final CsrGraph<?> graph; //decodes next hop slots back into vertex ids
+    private final ComponentIndex components;
+    private final int[] localId; //vertex id -> position in its component
+    private final PackedRows[] distances; //component -> lower triangle, [larger local id][smaller local id], null for single vertices
+    private final PackedRows[] nextHops; //component -> [from][to] by local id, slot of next hop among the neighbors of from
+
+    private ComponentBlockStore(CsrGraph<?> graph, ComponentIndex components, int[] localId,
+            PackedRows[] distances, PackedRows[] nextHops) {
+        this.graph = graph;
+        this.components = components;
+        this.localId = localId;
+        this.distances = distances;
+        this.nextHops = nextHops;
+    }
+
+    /**
+     * Computes shortest paths between all pairs of vertices in the same component
+     *
+     * @param graph graph to compute paths of
+     * @param components components of graph
+     * @return store holding a block of paths per component
+     */
+    public static ComponentBlockStore build(CsrGraph<?> graph, ComponentIndex components) {
+        int n = graph.size();
+        int count = components.componentCount();
+        int[] localId = new int[n];
+        int[][] members = new int[count][];
+        int[] filled = new int[count];
+        int[] maxDegree = new int[count];
+        for (int c = 0; c < count; c++) {
+            members[c] = new int[components.componentSize(c)];
+        }
+        for (int v = 0; v < n; v++) {
+            int c = components.componentOf(v);
+            if (c != -1) {
+                localId[v] = filled[c];
+                members[c][filled[c]++] = v;
+                maxDegree[c] = Math.max(maxDegree[c], graph.degree(v));
+            }
+        }
+
+        PackedRows[] distances = new PackedRows[count];
+        PackedRows[] nextHops = new PackedRows[count];
+        for (int c = 0; c < count; c++) {
+            int size = members[c].length;
+            if (size > 1) {
+                //no path in a component is longer than its number of vertices
+                distances[c] = new PackedRows(size, PackedRows.widthFor(size - 1));
+                nextHops[c] = new PackedRows(size, PackedRows.widthFor(maxDegree[c] - 1));
+            }
+        }
+
+        ComponentBlockStore store = new ComponentBlockStore(graph, components, localId, distances, nextHops);
+        ThreadLocal<int[][]> buffers = ThreadLocal.withInitial(() -> new int[3][components.largestComponentSize()]);
+        ForkJoinPool.commonPool().submit(() -> IntStream.range(0, n).parallel()
+                .filter(v -> components.componentOf(v) != -1 && components.componentSize(components.componentOf(v)) > 1)
+                .forEach(v -> store.search(v, members[components.componentOf(v)], buffers.get()))).join();
+        return store;
+    }
+
+    /*
+     * breadth first search from source over its own component, writing its rows of the block
+     */
+    private void search(int source, int[] members, int[][] buffers) {
+        int c = components.componentOf(source);
+        int[] distance = buffers[0]; //by local id
+        int[] firstHopSlot = buffers[1];
+        int[] queue = buffers[2]; //vertex ids
+        int size = members.length;
+        Arrays.fill(distance, 0, size, UNREACHABLE);
+        int local = localId[source];
+        distance[local] = 0;
+        firstHopSlot[local] = -1;
+
+        int head = 0;
+        int tail = 0;
+        int start = graph.edgeStart(source);
+        for (int e = start, end = graph.edgeEnd(source); e < end; e++) {
+            int v = graph.edgeTarget(e);
+            if (distance[localId[v]] == UNREACHABLE) {
+                distance[localId[v]] = 1;
+                firstHopSlot[localId[v]] = e - start;
+                queue[tail++] = v;
+            }
+        }
+        while (head < tail) {
+            int u = queue[head++];
+            for (int e = graph.edgeStart(u), end = graph.edgeEnd(u); e < end; e++) {
+                int v = graph.edgeTarget(e);
+                if (distance[localId[v]] == UNREACHABLE) {
+                    distance[localId[v]] = distance[localId[u]] + 1;
+                    firstHopSlot[localId[v]] = firstHopSlot[localId[u]];
+                    queue[tail++] = v;
+                }
+            }
+        }
+
+        distances[c].allocateRow(local, local);
+        nextHops[c].allocateRow(local, size);
+        for (int j = 0; j < size; j++) { //every vertex of the component is reachable
+            if (j < local) {
+                distances[c].set(local, j, distance[j]);
+            }
+            nextHops[c].set(local, j, firstHopSlot[j]);
+        }
+    }
+
+    @Override
+    public int distance(int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        int c = components.componentOf(from);
+        if (c == -1 || c != components.componentOf(to)) {
+            return UNREACHABLE;
+        }
+        int a = localId[from];
+        int b = localId[to];
+        return a > b ? distances[c].get(a, b) : distances[c].get(b, a);
+    }
+
+    /**
+     * @param from id of the vertex the path leaves from
+     * @param to id of the vertex the path goes to
+     * @return id of the vertex after from on the shortest path, -1 if from equals to or there is no path
+     */
+    public int nextHop(int from, int to) {
+        int c = components.componentOf(from);
+        if (from == to || c == -1 || c != components.componentOf(to)) {
+            return -1;
+        }
+        return graph.neighbor(from, nextHops[c].get(localId[from], localId[to]));
+    }
+
+    /**
+     * Follows next hops from the vertex with the higher id, as {@link CompactPathStore#path(int, int)} does,
+     * so both stores give the same paths
+     */
+    @Override
+    public int[] path(int from, int to) {
+        boolean reverse = from < to;
+        int start = reverse ? to : from;
+        int end = reverse ? from : to;
+        int d = distance(start, end);
+        if (d == UNREACHABLE) {
+            return null;
+        }
+        int[] path = new int[d + 1];
+        path[0] = start;
+        for (int i = 1; i <= d; i++) {
+            path[i] = nextHop(path[i - 1], end);
+        }
+        if (reverse) {
+            for (int i = 0, j = d; i < j; i++, j--) {
+                int temp = path[i];
+                path[i] = path[j];
+                path[j] = temp;
+            }
+        }
+        return path;
+    }
+
+    @Override
+    public boolean answersDirectly() {
+        return true;
+    }
+
+    /**
+     * @return number of pairs stored, the sum of the squared component sizes
+     */
+    public long storedPairs() {
+        long pairs = 0;
+        for (int c = 0; c < components.componentCount(); c++) {
+            pairs += (long) components.componentSize(c) * components.componentSize(c);
+        }
+        return pairs;
+    }
+}
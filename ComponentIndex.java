@@ -0,0 +1,315 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+
+/**
+ * Connected components of a graph, labelling every vertex id with the number of its component,
+ * so whether two vertices are connected is answered in O(1) without searching.
+ *
+ * Components are numbered from 0 in the order of their smallest vertex id. The index is immutable,
+ * and updates build a new index from the old one:
+ *  - {@link #extend(ComponentIndex, CsrGraph)} merges components over the edges of appended vertices with union-find
+ *  - {@link #removeEdges(ComponentIndex, CsrGraph, int[][])} only searches the components that lost edges, from the
+ *    endpoints of those edges at once, and stops once all but one of the pieces were explored
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class ComponentIndex {
+    private final int[] component; //vertex id -> component, -1 for unused ids
+    private final int[] sizes; //component -> number of vertices
+
+    private ComponentIndex(int[] component, int[] sizes) {
+        this.component = component;
+        this.sizes = sizes;
+    }
+
+    /**
+     * Labels the components of a graph with a breadth first search from every unlabelled vertex
+     *
+     * @param graph graph to label
+     * @return components of the graph
+     */
+    public static ComponentIndex build(CsrGraph<?> graph) {
+        int n = graph.size();
+        int[] labels = new int[n];
+        Arrays.fill(labels, -1);
+        int[] queue = new int[n];
+        int count = 0;
+        for (int s = 0; s < n; s++) {
+            if (labels[s] != -1 || graph.vertex(s) == null) {
+                continue;
+            }
+            labels[s] = count;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = s;
+            while (head < tail) {
+                int u = queue[head++];
+                for (int e = graph.edgeStart(u), end = graph.edgeEnd(u); e < end; e++) {
+                    int v = graph.edgeTarget(e);
+                    if (labels[v] == -1) {
+                        labels[v] = count;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+            count++;
+        }
+        return compact(labels, count);
+    }
+
+    /**
+     * Updates the components after vertices were appended to a graph. Every edge added since the old index
+     * was built must have an endpoint among the appended vertices, as when words are appended to a {@link Graph}.
+     *
+     * @param old components of the old graph
+     * @param graph old graph with vertices and edges appended, keeping the ids of the old vertices
+     * @return components of the new graph
+     */
+    public static ComponentIndex extend(ComponentIndex old, CsrGraph<?> graph) {
+        int n = old.size();
+        int total = graph.size();
+        //union-find over the old components followed by one new component per new vertex
+        int[] parent = new int[old.componentCount() + (total - n)];
+        for (int c = 0; c < parent.length; c++) {
+            parent[c] = c;
+        }
+        int[] labels = Arrays.copyOf(old.component, total);
+        for (int v = n; v < total; v++) {
+            labels[v] = graph.vertex(v) == null ? -1 : old.componentCount() + (v - n);
+        }
+        for (int v = n; v < total; v++) {
+            for (int e = graph.edgeStart(v), end = graph.edgeEnd(v); e < end; e++) {
+                int a = find(parent, labels[v]);
+                int b = find(parent, labels[graph.edgeTarget(e)]);
+                if (a != b) {
+                    parent[Math.max(a, b)] = Math.min(a, b);
+                }
+            }
+        }
+        for (int v = 0; v < total; v++) {
+            if (labels[v] != -1) {
+                labels[v] = find(parent, labels[v]);
+            }
+        }
+        return compact(labels, parent.length);
+    }
+
+    /**
+     * Updates the components after edges, and possibly vertices, were removed from a graph.
+     *
+     * A component can only fall apart into pieces that each hold an endpoint of a removed edge, so searches
+     * start from all of those endpoints at once, taking turns, and merge when they meet. Once every piece but
+     * one has been fully explored, the explored pieces get new components and the remaining one keeps the old
+     * component without being searched to the end. Splitting off a small piece only costs the size of that piece.
+     *
+     * @param old components of the old graph
+     * @param graph old graph without the removed edges, keeping the ids of the remaining vertices
+     * @param removedEdges ids of the two endpoints of every removed edge
+     * @return components of the new graph
+     */
+    public static ComponentIndex removeEdges(ComponentIndex old, CsrGraph<?> graph, int[][] removedEdges) {
+        int n = old.size();
+        int[] labels = old.component.clone();
+        for (int v = 0; v < n; v++) {
+            if (graph.vertex(v) == null) {
+                labels[v] = -1;
+            }
+        }
+        LinkedHashMap<Integer, LinkedHashSet<Integer>> seeds = new LinkedHashMap<>(); //component -> endpoints in it
+        for (int[] edge : removedEdges) {
+            for (int endpoint : edge) {
+                if (labels[endpoint] != -1) {
+                    seeds.computeIfAbsent(labels[endpoint], k -> new LinkedHashSet<>()).add(endpoint);
+                }
+            }
+        }
+        int[] owner = new int[n]; //search that reached each vertex
+        Arrays.fill(owner, -1);
+        int count = old.componentCount();
+        for (LinkedHashSet<Integer> componentSeeds : seeds.values()) {
+            if (componentSeeds.size() > 1) {
+                count = split(graph, componentSeeds, labels, owner, count);
+            }
+        }
+        return compact(labels, count);
+    }
+
+    /*
+     * searches from every seed of one component, giving each piece but the largest unexplored one a new label
+     *
+     * @return number of labels in use afterwards
+     */
+    private static int split(CsrGraph<?> graph, LinkedHashSet<Integer> seeds, int[] labels, int[] owner, int count) {
+        int k = seeds.size();
+        int[] parent = new int[k]; //union-find of searches that met
+        int[][] reached = new int[k][]; //vertices reached by each search, in order, doubling as its queue
+        int[] reachedCount = new int[k];
+        int[] head = new int[k];
+        int i = 0;
+        for (int seed : seeds) {
+            parent[i] = i;
+            reached[i] = new int[] {seed};
+            reachedCount[i] = 1;
+            owner[seed] = i;
+            i++;
+        }
+        boolean[] open = new boolean[k]; //group of a root still has vertices to expand
+        while (true) {
+            Arrays.fill(open, false);
+            int openGroups = 0;
+            for (int s = 0; s < k; s++) {
+                int root = find(parent, s);
+                if (head[s] < reachedCount[s] && !open[root]) {
+                    open[root] = true;
+                    openGroups++;
+                }
+            }
+            if (openGroups <= 1) {
+                break;
+            }
+            for (int s = 0; s < k; s++) {
+                if (head[s] == reachedCount[s]) {
+                    continue;
+                }
+                int u = reached[s][head[s]++];
+                for (int e = graph.edgeStart(u), end = graph.edgeEnd(u); e < end; e++) {
+                    int v = graph.edgeTarget(e);
+                    if (owner[v] == -1) {
+                        owner[v] = s;
+                        if (reachedCount[s] == reached[s].length) {
+                            reached[s] = Arrays.copyOf(reached[s], 2 * reachedCount[s]);
+                        }
+                        reached[s][reachedCount[s]++] = v;
+                    } else {
+                        int a = find(parent, s);
+                        int b = find(parent, owner[v]);
+                        if (a != b) {
+                            parent[Math.max(a, b)] = Math.min(a, b);
+                        }
+                    }
+                }
+            }
+        }
+
+        //the open group, or the largest one if all were explored, keeps the old label
+        int[] groupSize = new int[k];
+        for (int s = 0; s < k; s++) {
+            groupSize[find(parent, s)] += reachedCount[s];
+        }
+        int keep = -1;
+        for (int s = 0; s < k; s++) {
+            if (find(parent, s) == s && (open[s] || keep == -1 || !open[keep] && groupSize[s] > groupSize[keep])) {
+                keep = s;
+            }
+        }
+        int[] newLabel = new int[k];
+        for (int s = 0; s < k; s++) {
+            if (find(parent, s) == s && s != keep) {
+                newLabel[s] = count++;
+            }
+        }
+        for (int s = 0; s < k; s++) {
+            int root = find(parent, s);
+            for (int j = 0; j < reachedCount[s]; j++) {
+                owner[reached[s][j]] = -1; //leave owner clean for the next component
+                if (root != keep) {
+                    labels[reached[s][j]] = newLabel[root];
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /*
+     * renumbers labels from 0 in order of their smallest vertex id and counts the size of each
+     */
+    private static ComponentIndex compact(int[] labels, int labelCount) {
+        int[] dense = new int[labelCount];
+        Arrays.fill(dense, -1);
+        ArrayList<Integer> sizes = new ArrayList<>();
+        for (int v = 0; v < labels.length; v++) {
+            if (labels[v] == -1) {
+                continue;
+            }
+            if (dense[labels[v]] == -1) {
+                dense[labels[v]] = sizes.size();
+                sizes.add(0);
+            }
+            labels[v] = dense[labels[v]];
+            sizes.set(labels[v], sizes.get(labels[v]) + 1);
+        }
+        int[] sizeArray = new int[sizes.size()];
+        for (int c = 0; c < sizeArray.length; c++) {
+            sizeArray[c] = sizes.get(c);
+        }
+        return new ComponentIndex(labels, sizeArray);
+    }
+
+    /**
+     * @param id id of a vertex
+     * @return component of the vertex, -1 if the id is unused
+     */
+    public int componentOf(int id) {
+        return component[id];
+    }
+
+    /**
+     * @param a id of a vertex
+     * @param b id of a vertex
+     * @return true if there is a path between the vertices
+     */
+    public boolean connected(int a, int b) {
+        return component[a] != -1 && component[a] == component[b];
+    }
+
+    /**
+     * @return number of components
+     */
+    public int componentCount() {
+        return sizes.length;
+    }
+
+    /**
+     * @param c number of a component
+     * @return number of vertices in the component
+     */
+    public int componentSize(int c) {
+        return sizes[c];
+    }
+
+    /**
+     * @return number of vertices of every component, indexed by component
+     */
+    public int[] componentSizes() {
+        return sizes.clone();
+    }
+
+    /**
+     * @return number of vertices in the largest component, 0 if there are none
+     */
+    public int largestComponentSize() {
+        int max = 0;
+        for (int size : sizes) {
+            max = Math.max(max, size);
+        }
+        return max;
+    }
+
+    /**
+     * @return number of vertex ids the index covers
+     */
+    public int size() {
+        return component.length;
+    }
+}
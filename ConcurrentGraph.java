@@ -0,0 +1,253 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Undirected and unweighted graph that can be read and written from many threads at once.
+ *
+ * Vertices live in a {@link ConcurrentHashMap}. Every vertex is guarded by one of a fixed set of striped
+ * read write locks, picked by its hash, which protects its neighbor set. Changing an edge takes the
+ * write locks of both endpoints, always in stripe order so writers can not deadlock, which makes
+ * the two halves of an edge appear and disappear together: a reader holding the lock of either endpoint
+ * sees both halves or neither. Readers only take a read lock, so they run alongside each other and
+ * alongside writers on other stripes.
+ *
+ * A removed vertex is marked first, so no new edge can reach it, then its edges are removed one at a time.
+ *
+ * @param <E> type of a vertex
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class ConcurrentGraph<E> implements GraphADT<E> {
+
+    /**
+     * Number of lock stripes used when no other number is given
+     */
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ConcurrentHashMap<E, Node<E>> vertices;
+    private final ReentrantReadWriteLock[] stripes;
+
+    public ConcurrentGraph() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /*
+     * @param   stripes number of locks, rounded up to a power of two, more stripes mean fewer writers wait on each other
+     */
+    public ConcurrentGraph(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("need at least one lock stripe: " + stripes);
+        }
+        int count = Integer.highestOneBit(stripes);
+        if (count < stripes) {
+            count <<= 1;
+        }
+        this.stripes = new ReentrantReadWriteLock[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new ReentrantReadWriteLock();
+        }
+        this.vertices = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public E addVertex(E vertex) {
+        if (vertex == null) {
+            return null;
+        }
+        return vertices.putIfAbsent(vertex, new Node<E>()) == null ? vertex : null;
+    }
+
+    @Override
+    public E removeVertex(E vertex) {
+        Node<E> node = vertex == null ? null : vertices.get(vertex);
+        if (node == null) {
+            return null;
+        }
+        ReentrantReadWriteLock lock = stripeOf(vertex);
+        lock.writeLock().lock();
+        try {
+            if (node.removed) { //another thread is removing it
+                return null;
+            }
+            node.removed = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        //no edge can be added to a removed vertex, so its neighbors only shrink from here
+        for (E neighbor : neighborsOf(vertex, node)) {
+            removeEdge(vertex, neighbor);
+        }
+        vertices.remove(vertex, node);
+        return vertex;
+    }
+
+    @Override
+    public boolean addEdge(E vertex1, E vertex2) {
+        return changeEdge(vertex1, vertex2, true);
+    }
+
+    @Override
+    public boolean removeEdge(E vertex1, E vertex2) {
+        return changeEdge(vertex1, vertex2, false);
+    }
+
+    /*
+     * adds or removes both halves of an edge while holding the write locks of both endpoints.
+     * the nodes are looked up again under the locks, so a vertex that was removed and added again
+     * in between is never changed through its old node
+     *
+     * @return false if either vertex is missing or they are the same vertex
+     */
+    private boolean changeEdge(E vertex1, E vertex2, boolean add) {
+        if (vertex1 == null || vertex2 == null || vertex1.equals(vertex2)) {
+            return false;
+        }
+        int stripe1 = stripeIndex(vertex1);
+        int stripe2 = stripeIndex(vertex2);
+        ReentrantReadWriteLock first = stripes[Math.min(stripe1, stripe2)];
+        ReentrantReadWriteLock second = stripes[Math.max(stripe1, stripe2)];
+        while (true) {
+            Node<E> node1 = vertices.get(vertex1);
+            Node<E> node2 = vertices.get(vertex2);
+            if (node1 == null || node2 == null) {
+                return false;
+            }
+            first.writeLock().lock();
+            second.writeLock().lock(); //reentrant, so the same stripe twice is fine
+            try {
+                if (vertices.get(vertex1) != node1 || vertices.get(vertex2) != node2) {
+                    continue; //a vertex was removed and added again before the locks were taken
+                }
+                if (add) {
+                    if (node1.removed || node2.removed) {
+                        return false;
+                    }
+                    node1.neighbors.add(vertex2);
+                    node2.neighbors.add(vertex1);
+                } else {
+                    node1.neighbors.remove(vertex2);
+                    node2.neighbors.remove(vertex1);
+                }
+                return true;
+            } finally {
+                second.writeLock().unlock();
+                first.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public boolean isAdjacent(E vertex1, E vertex2) {
+        if (vertex1 == null || vertex2 == null || vertex1.equals(vertex2)) {
+            return false;
+        }
+        Node<E> node = vertices.get(vertex1);
+        if (node == null || !vertices.containsKey(vertex2)) {
+            return false;
+        }
+        ReentrantReadWriteLock lock = stripeOf(vertex1);
+        lock.readLock().lock();
+        try {
+            return node.neighbors.contains(vertex2);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get all the neighbor vertices of a vertex, as a copy that later changes do not affect
+     *
+     * @param vertex the vertex
+     * @return an iterable for all the immediate connected neighbor vertices, in the order the edges were added,
+     *         empty if the vertex does not exist
+     */
+    @Override
+    public Iterable<E> getNeighbors(E vertex) {
+        Node<E> node = vertex == null ? null : vertices.get(vertex);
+        return node == null ? new ArrayList<E>() : neighborsOf(vertex, node);
+    }
+
+    /*
+     * copy of the neighbors of a vertex, taken under its read lock
+     */
+    private ArrayList<E> neighborsOf(E vertex, Node<E> node) {
+        ReentrantReadWriteLock lock = stripeOf(vertex);
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(node.neighbors);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get all the vertices in the graph. Iterating sees every vertex present for the whole iteration,
+     * and may or may not see vertices added or removed during it
+     *
+     * @return an iterable for all the vertices
+     */
+    @Override
+    public Iterable<E> getAllVertices() {
+        return Collections.unmodifiableSet(vertices.keySet());
+    }
+
+    /**
+     * Takes an immutable compressed sparse row snapshot of the graph as it is at one instant.
+     * Every stripe is read locked for the duration, so writers wait while readers carry on.
+     *
+     * @return snapshot of the graph, with every edge present in both directions
+     */
+    public CsrGraph<E> freeze() {
+        for (ReentrantReadWriteLock lock : stripes) {
+            lock.readLock().lock();
+        }
+        try {
+            //vertices can still be added and removed without edges, so each one is read from the map once
+            VertexIndex<E> ids = new VertexIndex<>();
+            ArrayList<Node<E>> nodes = new ArrayList<>();
+            for (Map.Entry<E, Node<E>> entry : vertices.entrySet()) {
+                ids.add(entry.getKey());
+                nodes.add(entry.getValue());
+            }
+            int n = ids.size();
+            int[] offsets = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] = offsets[v] + nodes.get(v).neighbors.size();
+            }
+            int[] neighbors = new int[offsets[n]];
+            for (int v = 0; v < n; v++) {
+                int e = offsets[v];
+                for (E neighbor : nodes.get(v).neighbors) {
+                    neighbors[e++] = ids.idOf(neighbor);
+                }
+            }
+            return new CsrGraph<>(ids, offsets, neighbors);
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                stripes[i].readLock().unlock();
+            }
+        }
+    }
+
+    private int stripeIndex(E vertex) {
+        int h = vertex.hashCode();
+        return (h ^ h >>> 16) & (stripes.length - 1);
+    }
+
+    private ReentrantReadWriteLock stripeOf(E vertex) {
+        return stripes[stripeIndex(vertex)];
+    }
+
+    /*
+     * neighbors of a vertex, guarded by the lock of its stripe
+     */
+    private static class Node<E> {
+        final LinkedHashSet<E> neighbors = new LinkedHashSet<>();
+        boolean removed; //set once removal starts, no edges are added after that
+    }
+}
@@ -0,0 +1,153 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Stress tests of @see ConcurrentGraph, running many writers and readers at once
+ * and checking that every edge is present in both directions
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ */
+public class ConcurrentGraphTest {
+
+	private static final int THREADS = 8;
+	private static final int VERTICES = 48;
+	private static final int OPERATIONS = 20000;
+
+	private ConcurrentGraph<String> graph;
+
+	@Before
+	public void setUp() throws Exception {
+		// few stripes so writers often share locks
+		this.graph = new ConcurrentGraph<>(4);
+		for (int i = 0; i < VERTICES; i++) {
+			graph.addVertex("v" + i);
+		}
+	}
+
+	@Test
+	public final void edgesStaySymmetricUnderConcurrentWriters() throws Exception {
+		ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+		AtomicBoolean writing = new AtomicBoolean(true);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> writers = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			Random random = new Random(t);
+			writers.add(new Thread(() -> {
+				await(start);
+				for (int i = 0; i < OPERATIONS; i++) {
+					String v = "v" + random.nextInt(VERTICES);
+					String w = "v" + random.nextInt(VERTICES);
+					int op = random.nextInt(10);
+					if (op < 5) {
+						graph.addEdge(v, w);
+					} else if (op < 9) {
+						graph.removeEdge(v, w);
+					} else {
+						graph.removeVertex(v);
+						graph.addVertex(v);
+					}
+				}
+			}));
+		}
+		// readers race the writers, snapshots taken meanwhile must be symmetric
+		List<Thread> readers = new ArrayList<>();
+		for (int t = 0; t < 2; t++) {
+			Random random = new Random(100 + t);
+			readers.add(new Thread(() -> {
+				await(start);
+				try {
+					while (writing.get()) {
+						String v = "v" + random.nextInt(VERTICES);
+						for (String neighbor : graph.getNeighbors(v)) {
+							graph.isAdjacent(neighbor, v);
+						}
+						assertSymmetric(graph.freeze());
+					}
+				} catch (Throwable e) {
+					errors.add(e);
+				}
+			}));
+		}
+		for (Thread thread : writers) {
+			thread.setUncaughtExceptionHandler((th, e) -> errors.add(e));
+			thread.start();
+		}
+		for (Thread thread : readers) {
+			thread.start();
+		}
+		start.countDown();
+		for (Thread thread : writers) {
+			thread.join();
+		}
+		writing.set(false);
+		for (Thread thread : readers) {
+			thread.join();
+		}
+		assertTrue("errors while running: " + errors, errors.isEmpty());
+
+		for (String v : graph.getAllVertices()) {
+			for (String neighbor : graph.getNeighbors(v)) {
+				assertTrue(v + " - " + neighbor + " is one sided", graph.isAdjacent(neighbor, v));
+			}
+		}
+		assertSymmetric(graph.freeze());
+	}
+
+	@Test
+	public final void concurrentWritersKeepEveryEdge() throws Exception {
+		// every thread adds its own edges, all of them must be there afterwards
+		List<Thread> writers = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			int offset = t;
+			writers.add(new Thread(() -> {
+				for (int i = offset; i < VERTICES; i += THREADS) {
+					for (int j = 0; j < i; j++) {
+						graph.addEdge("v" + i, "v" + j);
+					}
+				}
+			}));
+		}
+		for (Thread thread : writers) {
+			thread.start();
+		}
+		for (Thread thread : writers) {
+			thread.join();
+		}
+		CsrGraph<String> snapshot = graph.freeze();
+		assertEquals("number of edges", VERTICES * (VERTICES - 1) / 2, snapshot.edgeCount());
+		for (int v = 0; v < snapshot.size(); v++) {
+			assertEquals("degree of " + snapshot.vertex(v), VERTICES - 1, snapshot.degree(v));
+		}
+	}
+
+	private static void assertSymmetric(CsrGraph<String> snapshot) {
+		for (int v = 0; v < snapshot.size(); v++) {
+			for (int slot = 0; slot < snapshot.degree(v); slot++) {
+				int w = snapshot.neighbor(v, slot);
+				boolean back = false;
+				for (int s = 0; s < snapshot.degree(w); s++) {
+					back |= snapshot.neighbor(w, s) == v;
+				}
+				assertTrue(snapshot.vertex(v) + " - " + snapshot.vertex(w) + " is one sided", back);
+			}
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
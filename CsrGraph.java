@@ -0,0 +1,159 @@
+/**
+ * Immutable compressed sparse row (CSR) snapshot of a graph, for read heavy workloads.
+ *
+ * Snapshots are taken by {@link Graph#freeze()} and {@link ConcurrentGraph#freeze()}. Vertices get dense ids
+ * in the order the graph iterates them, or the ids of a given {@link VertexIndex}.
+ * The neighbors of every vertex are laid out back to back in one int array, in the order the graph
+ * iterates them, and vertex v's neighbors sit between offsets[v] and offsets[v + 1]. Traversals walk
+ * plain int arrays with sequential memory access instead of hash lookups and list copies, and allocate nothing per step.
+ *
+ * @param <E> type of a vertex
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class CsrGraph<E> {
+    private final VertexIndex<E> vertices; //id <-> vertex
+    private final int[] offsets; //neighbors of v are neighbors[offsets[v]] to neighbors[offsets[v + 1] - 1]
+    private final int[] neighbors; //ids of the neighbors of every vertex, back to back
+
+    /*
+     * @param   vertices    ids of the vertices, not modified after this
+     * @param   offsets     start of the neighbors of each vertex, followed by the total number of neighbors
+     * @param   neighbors   ids of the neighbors of every vertex
+     */
+    CsrGraph(VertexIndex<E> vertices, int[] offsets, int[] neighbors) {
+        this.vertices = vertices;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+    }
+
+    /*
+     * copy of this snapshot with the neighbors of some vertices replaced. rows of every other vertex
+     * are copied over in bulk between the replaced ones, only their offsets are shifted
+     *
+     * @param   vertices    ids of the new snapshot, not modified after this
+     * @param   changed     ids of the vertices whose neighbors are replaced, ascending
+     * @param   rows        new neighbors of each changed vertex
+     */
+    CsrGraph<E> replaceRows(VertexIndex<E> vertices, int[] changed, int[][] rows) {
+        int n = size();
+        int total = neighbors.length;
+        for (int i = 0; i < changed.length; i++) {
+            total += rows[i].length - degree(changed[i]);
+        }
+        int[] newOffsets = new int[n + 1];
+        int[] newNeighbors = new int[total];
+        int shift = 0; //how far rows after the last changed one moved
+        int from = 0; //first id not copied yet
+        for (int i = 0; i <= changed.length; i++) {
+            int to = i < changed.length ? changed[i] : n;
+            for (int v = from; v <= to; v++) {
+                newOffsets[v] = offsets[v] + shift;
+            }
+            System.arraycopy(neighbors, offsets[from], newNeighbors, offsets[from] + shift, offsets[to] - offsets[from]);
+            if (i < changed.length) {
+                System.arraycopy(rows[i], 0, newNeighbors, newOffsets[to], rows[i].length);
+                shift += rows[i].length - degree(to);
+                from = to + 1;
+            }
+        }
+        return new CsrGraph<>(vertices, newOffsets, newNeighbors);
+    }
+
+    /*
+     * ids of the vertices, shared with every snapshot patched from this one
+     */
+    VertexIndex<E> vertices() {
+        return vertices;
+    }
+
+    /**
+     * @return number of vertex ids, including ids left unused by removed vertices
+     */
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return number of vertices
+     */
+    public int vertexCount() {
+        return vertices.vertexCount();
+    }
+
+    /**
+     * @return number of undirected edges
+     */
+    public int edgeCount() {
+        return neighbors.length / 2;
+    }
+
+    /**
+     * @param v id of a vertex
+     * @return number of neighbors of v
+     */
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * @return largest number of neighbors of any vertex
+     */
+    public int maxDegree() {
+        int max = 0;
+        for (int v = 0; v < size(); v++) {
+            max = Math.max(max, degree(v));
+        }
+        return max;
+    }
+
+    /**
+     * @param v id of a vertex
+     * @return position of the first neighbor of v, see {@link #edgeTarget(int)}
+     */
+    public int edgeStart(int v) {
+        return offsets[v];
+    }
+
+    /**
+     * @param v id of a vertex
+     * @return position after the last neighbor of v
+     */
+    public int edgeEnd(int v) {
+        return offsets[v + 1];
+    }
+
+    /**
+     * @param edge position between edgeStart and edgeEnd of a vertex
+     * @return id of the neighbor at that position
+     */
+    public int edgeTarget(int edge) {
+        return neighbors[edge];
+    }
+
+    /**
+     * @param v id of a vertex
+     * @param slot index of the neighbor, from 0 to degree - 1
+     * @return id of the neighbor in that slot
+     */
+    public int neighbor(int v, int slot) {
+        return neighbors[offsets[v] + slot];
+    }
+
+    /**
+     * @param vertex vertex to look up
+     * @return id of the vertex, -1 if it is not in the graph
+     */
+    public int idOf(E vertex) {
+        return vertices.idOf(vertex);
+    }
+
+    /**
+     * @param id id of a vertex
+     * @return vertex with the given id, null if the id is unused
+     */
+    public E vertex(int id) {
+        return vertices.get(id);
+    }
+}
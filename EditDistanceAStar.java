@@ -0,0 +1,108 @@
+/**
+ * Shortest path engine that answers every query with an A* search guided by the edit distance to the target word,
+ * needing no precomputation at all.
+ *
+ * Every edge of a word ladder is a single 1 char replacement, addition or deletion, so the Levenshtein distance
+ * between two words never exceeds their distance in the graph and is a lower bound that steers the search
+ * towards the target. Neighbors are a single edit apart, so their edit distances to the target differ by at
+ * most 1: the bound is consistent, every vertex is expanded at most once, and the bound of a neighbor only
+ * needs to be computed up to one more than the bound of the vertex it was reached from
+ * {@link WordProcessor#editDistance(String, String, int, int[])}, which keeps each computation to a narrow band.
+ *
+ * Search state lives in {@link AStarBuffers} that each thread reuses across queries, so a query only allocates its result.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class EditDistanceAStar implements ShortestPathEngine {
+    private final CsrGraph<String> graph;
+    private final ThreadLocal<Buffers> buffers;
+
+    /*
+     * @param   graph   graph of words to search
+     */
+    public EditDistanceAStar(CsrGraph<String> graph) {
+        this.graph = graph;
+        this.buffers = ThreadLocal.withInitial(() -> new Buffers(graph.size()));
+    }
+
+    @Override
+    public int distance(int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        Buffers b = buffers.get();
+        return search(b, from, to) ? b.distance[to] : UNREACHABLE;
+    }
+
+    @Override
+    public int[] path(int from, int to) {
+        if (from == to) {
+            return new int[] {from};
+        }
+        Buffers b = buffers.get();
+        return search(b, from, to) ? b.pathTo(to) : null;
+    }
+
+    /*
+     * edit distance from the word of v to the target, computed exactly up to max
+     */
+    private int lowerBound(Buffers b, int v, int max) {
+        return WordProcessor.editDistance(graph.vertex(v), b.target, max, b.row);
+    }
+
+    /*
+     * runs the search, leaving distances and parents of the expanded vertices in the buffers
+     *
+     * @return true if from and to are connected
+     */
+    private boolean search(Buffers b, int from, int to) {
+        b.nextGeneration();
+        b.target = graph.vertex(to);
+        if (b.row.length <= b.target.length()) {
+            b.row = new int[b.target.length() + 1]; //only grows for the longest target so far
+        }
+        String source = graph.vertex(from);
+        b.reach(from, 0, -1);
+        b.bound[from] = lowerBound(b, from, Math.max(source.length(), b.target.length()));
+        b.push(b.bound[from], from);
+
+        while (!b.isEmpty()) {
+            int u = b.pop();
+            if (b.closed[u] == b.generation) {
+                continue; //an older entry, u was already expanded through a shorter path
+            }
+            b.closed[u] = b.generation;
+            if (u == to) {
+                return true;
+            }
+            int g = b.distance[u] + 1;
+            for (int e = graph.edgeStart(u), end = graph.edgeEnd(u); e < end; e++) {
+                int v = graph.edgeTarget(e);
+                if (b.seen[v] != b.generation) {
+                    b.reach(v, g, u);
+                    b.bound[v] = lowerBound(b, v, b.bound[u] + 1); //one edit never moves the distance by more than 1
+                } else if (g < b.distance[v]) {
+                    b.distance[v] = g;
+                    b.parent[v] = u;
+                } else {
+                    continue;
+                }
+                b.push(g + b.bound[v], v);
+            }
+        }
+        return false;
+    }
+
+    /*
+     * search state of one thread, with the current target word and a row for its edit distances
+     */
+    private static class Buffers extends AStarBuffers {
+        String target;
+        int[] row = new int[32];
+
+        Buffers(int n) {
+            super(n);
+        }
+    }
+}
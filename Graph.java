@@ -1,7 +1,10 @@
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 
 /**
  * Undirected and unweighted graph implementation
@@ -16,14 +19,11 @@ public class Graph<E> implements GraphADT<E> {
      * Instance variables and constructors
      */
     
-    //stores graphnodes with edge information 
+    //stores graphnodes with edge information, linked so vertices iterate in the order they were added
     HashMap<E, GraphNode<E>> adjList;
     
-    //stores raw data of vertices
-    ArrayList<E> vertices;
     public Graph() {
-        adjList = new HashMap<>();
-        vertices = new ArrayList<>();
+        adjList = new LinkedHashMap<>();
     }
     
     /**
@@ -39,9 +39,8 @@ public class Graph<E> implements GraphADT<E> {
     
     @Override
     public E addVertex(E vertex) {
-        if (vertex != null && vertices.contains(vertex) == false) { //checks if vertex is non null and unique
+        if (vertex != null && adjList.containsKey(vertex) == false) { //checks if vertex is non null and unique
             adjList.put(vertex, new GraphNode<E>(vertex));
-            vertices.add(vertex);
             return vertex;
         }
         return null;
@@ -63,7 +62,6 @@ public class Graph<E> implements GraphADT<E> {
             GraphNode<E> g = adjList.get(vertex);
             g.removeAllEdges();
             adjList.remove(vertex);
-            vertices.remove(vertex);
             return g.getData();
         }
         return null;
@@ -143,14 +141,144 @@ public class Graph<E> implements GraphADT<E> {
         return (Iterable<E>)adjList.get(vertex).getEdges();
     }
 
+    /**
+     * Pass every neighbor of a vertex to an action, without building a list of them
+     * like {@link #getNeighbors(Object)} does
+     * 
+     * Valid argument conditions:
+     * 1. vertex is not null
+     * 2. vertex exists
+     * 
+     * @param vertex the vertex
+     * @param action called with each immediate connected neighbor vertex
+     * @return false if the vertex does not exist, else true
+     */
+    public boolean forEachNeighbor(E vertex, Consumer<? super E> action) {
+        GraphNode<E> node = vertex == null ? null : adjList.get(vertex);
+        if (node == null) {
+            return false;
+        }
+        node.forEachEdge(action);
+        return true;
+    }
+
+    /**
+     * Get the number of neighbors of a vertex
+     * 
+     * @param vertex the vertex
+     * @return number of immediate connected neighbor vertices, -1 if the vertex does not exist
+     */
+    public int degree(E vertex) {
+        GraphNode<E> node = vertex == null ? null : adjList.get(vertex);
+        return node == null ? -1 : node.degree();
+    }
+
+    /*
+     * appends neighbor to the end of the edges of vertex, without adding vertex to the edges of neighbor.
+     * used to rebuild a graph with the exact neighbor order of every vertex {@link GraphSnapshot},
+     * the graph is only consistent once the other side of every edge is appended too
+     *
+     * @return false if either vertex does not exist or they are already adjacent
+     */
+    boolean appendHalfEdge(E vertex, E neighbor) {
+        GraphNode<E> node = vertex == null ? null : adjList.get(vertex);
+        GraphNode<E> other = neighbor == null ? null : adjList.get(neighbor);
+        if (node == null || other == null || node.hasEdge(other)) {
+            return false;
+        }
+        node.link(other);
+        return true;
+    }
+
     /**
      * Get all the vertices in the graph
      * 
-     * @return an iterable for all the vertices
+     * @return an iterable for all the vertices, in the order they were added
      */
     @Override
     public Iterable<E> getAllVertices() {
-        return (Iterable<E>)vertices;
+        return Collections.unmodifiableSet(adjList.keySet());
+    }
+
+    /**
+     * Takes an immutable compressed sparse row snapshot of the graph, for traversals that
+     * only read it. Later changes to the graph are not reflected in the snapshot.
+     * 
+     * @return snapshot with vertex ids in the order of {@link #getAllVertices()}
+     */
+    public CsrGraph<E> freeze() {
+        return freeze(new VertexIndex<E>());
+    }
+
+    /**
+     * Takes an immutable compressed sparse row snapshot of the graph, keeping the ids of a vertex index
+     * so data indexed by those ids lines up with the snapshot. Vertices without an id get the next ones,
+     * and ids of vertices no longer in the graph are left unused. The index itself is not changed.
+     * 
+     * @param ids ids to give the vertices
+     * @return snapshot of the graph
+     */
+    public CsrGraph<E> freeze(VertexIndex<E> ids) {
+        VertexIndex<E> snapshotIds = new VertexIndex<>(ids);
+        for (int id = 0; id < ids.size(); id++) {
+            if (ids.get(id) != null && !adjList.containsKey(ids.get(id))) {
+                snapshotIds.remove(ids.get(id));
+            }
+        }
+        for (E vertex : adjList.keySet()) {
+            snapshotIds.add(vertex);
+        }
+        int n = snapshotIds.size();
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            GraphNode<E> node = snapshotIds.get(v) == null ? null : adjList.get(snapshotIds.get(v));
+            offsets[v + 1] = offsets[v] + (node == null ? 0 : node.degree());
+        }
+        //reads the edges of each node in place, no neighbor lists are copied
+        int[] neighbors = new int[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            GraphNode<E> node = snapshotIds.get(v) == null ? null : adjList.get(snapshotIds.get(v));
+            for (int slot = 0, e = offsets[v]; node != null && slot < node.degree(); slot++) {
+                neighbors[e++] = snapshotIds.idOf(node.getEdge(slot));
+            }
+        }
+        return new CsrGraph<>(snapshotIds, offsets, neighbors);
+    }
+
+    /**
+     * Takes a snapshot like {@link #freeze(VertexIndex)} when the only changes since a previous snapshot are removed
+     * edges and vertices. Only the neighbors of the changed vertices are read from the graph, the rows of every other
+     * vertex are copied over from the previous snapshot in bulk, so no other edge is looked up again. Ids are kept,
+     * and the ids of removed vertices are left unused, which copies the ids of the previous snapshot.
+     * 
+     * @param previous snapshot taken before the removals
+     * @param changed vertices that were removed or lost edges since previous was taken
+     * @return snapshot of the graph, the same as freezing it with the ids of previous
+     */
+    public CsrGraph<E> freeze(CsrGraph<E> previous, Iterable<E> changed) {
+        VertexIndex<E> ids = previous.vertices();
+        TreeSet<Integer> changedIds = new TreeSet<>();
+        for (E vertex : changed) {
+            int id = ids.idOf(vertex);
+            if (id != -1 && changedIds.add(id) && !adjList.containsKey(vertex)) {
+                if (ids == previous.vertices()) {
+                    ids = new VertexIndex<>(ids);
+                }
+                ids.remove(vertex);
+            }
+        }
+        int[] sortedIds = new int[changedIds.size()];
+        int[][] rows = new int[sortedIds.length][];
+        int i = 0;
+        for (int id : changedIds) {
+            GraphNode<E> node = adjList.get(previous.vertex(id));
+            rows[i] = new int[node == null ? 0 : node.degree()];
+            for (int slot = 0; slot < rows[i].length; slot++) {
+                rows[i][slot] = ids.idOf(node.getEdge(slot));
+            }
+            sortedIds[i++] = id;
+        }
+        return previous.replaceRows(ids, sortedIds, rows);
     }
 
 }
@@ -1,4 +1,6 @@
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.Consumer;
 
 /**
  * GraphNode that stores edge information of vertex
@@ -10,7 +12,8 @@ import java.util.ArrayList;
  */
 public class GraphNode<E> {
     private E data;
-    private ArrayList<GraphNode<E>> edges;
+    private ArrayList<GraphNode<E>> edges; //connected nodes, iterated in the order edges were added
+    private HashMap<GraphNode<E>, Integer> edgeSlots; //connected node -> its position in edges, for constant time lookups
     
     
     /*
@@ -19,6 +22,7 @@ public class GraphNode<E> {
     public GraphNode(E data) {
         this.data = data;
         edges = new ArrayList<GraphNode<E>>();
+        edgeSlots = new HashMap<GraphNode<E>, Integer>();
     }
     
     /*
@@ -41,9 +45,9 @@ public class GraphNode<E> {
      * @param   node    node to be connected to (edge between nodes)
      */
     public void addEdge(GraphNode<E> node) {
-        if (!edges.contains(node)) {
-            edges.add(node);
-            node.edges.add(this);
+        if (!hasEdge(node)) {
+            link(node);
+            node.link(this);
         }
         
     }
@@ -55,8 +59,8 @@ public class GraphNode<E> {
      */
     public void removeEdge(GraphNode<E> node) {
         if (hasEdge(node)) {
-            edges.remove(node);
-            node.edges.remove(this);
+            unlink(node);
+            node.unlink(this);
         }
         
     }
@@ -65,9 +69,11 @@ public class GraphNode<E> {
      * remove all edges from node
      */
     public void removeAllEdges() {
-        for (int i = 0; i < edges.size(); i++) {
-            removeEdge(edges.get(0));
+        for (GraphNode<E> node : edges) {
+            node.unlink(this);
         }
+        edges.clear();
+        edgeSlots.clear();
     }
     
     /*
@@ -77,7 +83,7 @@ public class GraphNode<E> {
      * @return true or false if there exists an edge between this node and another given node
      */
     public boolean hasEdge(GraphNode<E> node) {
-        return edges.contains(node);
+        return edgeSlots.containsKey(node);
     }
     
     /*
@@ -93,4 +99,57 @@ public class GraphNode<E> {
         return edgeList;
     }
     
-}
+    /*
+     * passes the raw data of every connected node to action, without copying the edges
+     * 
+     * @param   action  called with the data of each connected node
+     */
+    public void forEachEdge(Consumer<? super E> action) {
+        for (int i = 0; i < edges.size(); i++) {
+            action.accept(edges.get(i).getData());
+        }
+    }
+    
+    /*
+     * gets raw data of the connected node in a slot, slots go from 0 to degree - 1
+     * 
+     * @param   slot    position of the edge
+     * @return data of the node connected in that slot
+     */
+    public E getEdge(int slot) {
+        return edges.get(slot).getData();
+    }
+    
+    /*
+     * @return number of nodes connected to this node
+     */
+    public int degree() {
+        return edges.size();
+    }
+    
+    /*
+     * adds node to the end of this node's edges, one side of an edge only.
+     * the edge is only complete once the other node links back to this one
+     * 
+     * @param   node    node to be connected to
+     */
+    void link(GraphNode<E> node) {
+        edgeSlots.put(node, edges.size());
+        edges.add(node);
+    }
+    
+    /*
+     * removes node from this node's edges by moving the last edge into its slot, one side of an edge only
+     * 
+     * @param   node    node connection to be removed
+     */
+    private void unlink(GraphNode<E> node) {
+        int slot = edgeSlots.remove(node);
+        GraphNode<E> last = edges.remove(edges.size() - 1);
+        if (last != node) {
+            edges.set(slot, last);
+            edgeSlots.put(last, slot);
+        }
+    }
+    
+}
\ No newline at end of file
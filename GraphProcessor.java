@@ -1,12 +1,17 @@
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -15,7 +20,8 @@ import java.util.stream.Stream;
  * Contains an instance variable, {@link #graph}, which stores information for all the vertices and edges.
  * @see #populateGraph(String)
  *  - loads a dictionary of words as vertices in the graph.
- *  - finds possible edges between all pairs of vertices and adds these edges in the graph.
+ *  - finds the edges of every new word by looking up its wildcard patterns and deletion keys in a
+ *    {@link WordAdjacencyIndex}, instead of comparing all pairs of vertices, and adds these edges in the graph.
  *  - returns number of vertices added as Integer.
  *  - every call to this method will add to the existing graph.
  *  - this method needs to be invoked first for other methods on shortest path computation to work.
@@ -23,7 +29,8 @@ import java.util.stream.Stream;
  *  - applies a shortest path algorithm to precompute data structures (that store shortest path data)
  *  - the shortest path data structures are used later to 
  *    to quickly find the shortest path and distance between two vertices.
- *  - this method is called after any call to populateGraph.
+ *  - this method is called after the first call to populateGraph, later calls update the precomputed
+ *    data structures incrementally for the words they add.
  *  - It is not called again unless new graph information is added via populateGraph().
  * @see #getShortestPath(String, String)
  *  - returns a list of vertices that constitute the shortest path between two given vertices, 
@@ -33,25 +40,127 @@ import java.util.stream.Stream;
  *  - returns distance (number of edges) as an Integer for the shortest path between two given vertices
  *  - this is computed using the precomputed data structures computed as part of {@link #shortestPathPrecomputation()}.
  *  - {@link #shortestPathPrecomputation()} must have been invoked once before invoking this method.
+ * @see #removeWord(String)
+ *  - removes a word and its edges, updating the precomputed data only for the paths that used them.
+ * @see #saveGraph(String)
+ *  - writes the words and edges to a file, {@link #loadGraph(String)} reads them back without finding adjacent words.
+ * @see #savePaths(String)
+ *  - writes the precomputed data to a file, {@link #loadPaths(String)} maps it back in a new process.
+ * @see #getSnapshot()
+ *  - queries read an immutable {@link QuerySnapshot} that every change replaces atomically, so queries
+ *    running while a dictionary is reloaded keep reading the version they started on.
+ * @see QueryMode
+ *  - chooses whether paths are precomputed for all pairs or searched on demand, per instance.
  *  
  * @author sapan (sapan@cs.wisc.edu)
  * 
  */
 public class GraphProcessor {
 
+    /**
+     * How shortest path queries are answered
+     */
+    public enum QueryMode {
+        /**
+         * paths between all pairs of vertices are computed up front {@link CompactPathStore}
+         */
+        PRECOMPUTED,
+        /**
+         * a search tree is computed the first time a vertex is queried and cached {@link BfsTreeCache}
+         */
+        LAZY,
+        /**
+         * every query searches from both words until the searches meet {@link BidirectionalBfs}
+         */
+        BIDIRECTIONAL,
+        /**
+         * paths between pairs in the same connected component are computed up front, one block
+         * per component {@link ComponentBlockStore}
+         */
+        COMPONENT_BLOCKS,
+        /**
+         * every vertex gets a label of distances to a few hubs, and queries merge two labels {@link PrunedLandmarkLabels}
+         */
+        LANDMARK_LABELS,
+        /**
+         * every query runs an A* search bounded by the distances to a few landmarks {@link LandmarkAStar}
+         */
+        ALT,
+        /**
+         * every query runs an A* search bounded by the edit distance to the target word {@link EditDistanceAStar}
+         */
+        EDIT_DISTANCE
+    }
+
+    /**
+     * Number of search trees kept by {@link QueryMode#LAZY} when no other size is given
+     */
+    public static final int DEFAULT_CACHED_TREES = 256;
+
+    /**
+     * Number of landmarks picked by {@link QueryMode#ALT} when no other number is given
+     */
+    public static final int DEFAULT_LANDMARKS = 16;
+
     /**
      * Graph which stores the dictionary words and their associated connections
      */
-    private GraphADT<String> graph;
+    private Graph<String> graph;
+    private CsrGraph<String> snapshot; //frozen copy of graph taken by shortestPathPrecomputation, its dense vertex ids index the engine
+    private VertexIndex<String> vertexIndex = new VertexIndex<>(); //ids of the words, kept across updates so precomputed rows stay valid
     private Stream<String> fileStream;
-    private int[][] distanceMatrix; //stores shortest distance of vertices in format [origin vertex][end vertex] with the value being the distance
-    private String[][] predMatrix; //stores predecessor information for vertices, in same format as above, but value instead indicates next node to find shortest path
-    private ArrayList<String> vertices = new ArrayList<String>(); //stores all vertices of graph
+    private QueryMode mode;
+    private int cachedTrees; //size of the tree cache in lazy mode
+    private int landmarks; //number of landmarks in alt mode
+    private ShortestPathEngine engine; //answers distance and path queries on vertex ids, built by shortestPathPrecomputation
+    private WordAdjacencyIndex adjacencyIndex = new WordAdjacencyIndex(); //finds adjacent words of new vertices without scanning the graph
+    private ComponentIndex components; //connected components of snapshot, kept up to date with every change
+    //every field above is only used by changes, which are synchronized so one runs at a time
+    private volatile QuerySnapshot published; //what queries read, replaced as a whole once a change is complete
     /**
      * Constructor for this class. Initializes instances variables to set the starting state of the object
      */
     public GraphProcessor() {
+        this(QueryMode.PRECOMPUTED);
+    }
+
+    /**
+     * Constructor for this class answering queries in the given mode
+     * 
+     * @param mode how shortest path queries are answered
+     */
+    public GraphProcessor(QueryMode mode) {
+        this(mode, DEFAULT_CACHED_TREES);
+    }
+
+    /**
+     * Constructor for this class answering queries in the given mode
+     * 
+     * @param mode how shortest path queries are answered
+     * @param cachedTrees number of search trees kept in {@link QueryMode#LAZY} mode
+     */
+    public GraphProcessor(QueryMode mode, int cachedTrees) {
+        this(mode, cachedTrees, DEFAULT_LANDMARKS);
+    }
+
+    private GraphProcessor(QueryMode mode, int cachedTrees, int landmarks) {
         this.graph = new Graph<>();
+        this.snapshot = graph.freeze(vertexIndex);
+        this.mode = mode;
+        this.cachedTrees = cachedTrees;
+        this.landmarks = landmarks;
+        this.components = ComponentIndex.build(snapshot);
+        this.published = new QuerySnapshot(0, snapshot, null, components);
+    }
+
+    /**
+     * Creates a processor answering queries in {@link QueryMode#ALT} mode with a given number of landmarks
+     * 
+     * @param landmarks number of landmarks to pick, fewer are picked if there are not enough words with edges
+     * @return processor in alt mode
+     */
+    public static GraphProcessor withLandmarks(int landmarks) {
+        return new GraphProcessor(QueryMode.ALT, DEFAULT_CACHED_TREES, landmarks);
     }
 
     /**
@@ -62,34 +171,253 @@ public class GraphProcessor {
      * Reads a word from the file and adds it as a vertex to a graph.
      * Repeat for all words.
      * 
-     * For all possible pairs of vertices, finds if the pair of vertices is adjacent {@link WordProcessor#isAdjacent(String, String)}
-     * If a pair is adjacent, adds an undirected and unweighted edge between the pair of vertices in the graph.
+     * For every new vertex, finds the existing vertices adjacent to it {@link WordProcessor#isAdjacent(String, String)}
+     * through the wildcard and deletion buckets of {@link WordAdjacencyIndex}, so words are never compared pairwise.
+     * For each adjacent pair, adds an undirected and unweighted edge between the pair of vertices in the graph.
+     * 
+     * If paths were already precomputed, only the paths that reach or go through the new words are searched
+     * again {@link CompactPathStore#extend(CompactPathStore, CsrGraph)}.
      * 
      * @param filepath file path to the dictionary
      * @return Integer the number of vertices (words) added
      */
-    public Integer populateGraph(String filepath) {
+    public synchronized Integer populateGraph(String filepath) {
         try {
-            fileStream = WordProcessor.getWordStream(filepath);
+            fileStream = WordProcessor.getWordStream(filepath, false); //memory mapped, same words as the line reader
         } catch (IOException e) {
             e.printStackTrace();
         }
 
-        //for each item in the stream, add a vertex to graph and check all previous vertices for adjacency (1 letter change) 
+        //for each item in the stream, add a vertex to graph and connect it to the adjacent words already indexed (1 letter change) 
         fileStream.forEach(s -> {
-            graph.addVertex(s);
-            for (String str : graph.getAllVertices()) {
-                if (WordProcessor.isAdjacent(str, s)) { //check of current string and strings already in graph are similar
-                    if (!str.equals(s)) { //ignore same string
-                        graph.addEdge(str, s);
-                    }
+            if (graph.addVertex(s) != null) { //duplicate words already have their edges
+                vertexIndex.add(s);
+                for (String str : adjacencyIndex.add(s)) {
+                    graph.addEdge(str, s);
                 }
             }
         });
-        vertices = (ArrayList<String>)graph.getAllVertices();
+        return updateAfterPopulate();
+
+    }
+
+    /**
+     * Builds a graph from the words in a file like {@link #populateGraph(String)}, optionally using every core.
+     * 
+     * The parallel build runs in stages:
+     *  - reads the words, splitting the file across cores {@link WordProcessor#getWordStream(String, boolean)}
+     *  - drops duplicates and assigns ids to the new words in file order
+     *  - indexes the new words, then finds the adjacent words of each one in parallel, keeping those
+     *    with a smaller id, which are the ones a sequential build would have found already indexed
+     *  - adds the edges to the graph in the order a sequential build adds them
+     * so the graph, down to the order of neighbors, and the precomputed paths are the same as with a sequential build.
+     * 
+     * @param filepath file path to the dictionary
+     * @param parallel true to build the graph on every core
+     * @return Integer the number of vertices (words) in the graph
+     */
+    public synchronized Integer populateGraph(String filepath, boolean parallel) {
+        if (!parallel) {
+            return populateGraph(filepath);
+        }
+        List<String> words;
+        try {
+            words = WordProcessor.getWordStream(filepath, true).collect(Collectors.toList());
+        } catch (IOException e) {
+            e.printStackTrace();
+            words = new ArrayList<>();
+        }
+
+        List<String> added = new ArrayList<>();
+        for (String word : words) {
+            if (graph.addVertex(word) != null) {
+                vertexIndex.add(word);
+                added.add(word);
+            }
+        }
+        adjacencyIndex.addAll(added);
+        //the indexes are only read from here on, so every word is looked up concurrently
+        List<List<String>> earlierNeighbors = added.parallelStream().map(word -> {
+            int id = vertexIndex.idOf(word);
+            List<String> neighbors = adjacencyIndex.neighborsOf(word);
+            neighbors.removeIf(neighbor -> vertexIndex.idOf(neighbor) >= id);
+            return neighbors;
+        }).collect(Collectors.toList());
+        for (int i = 0; i < added.size(); i++) {
+            for (String neighbor : earlierNeighbors.get(i)) {
+                graph.addEdge(neighbor, added.get(i));
+            }
+        }
+        return updateAfterPopulate();
+    }
+
+    /*
+     * brings the engine up to date with the words just added
+     * 
+     * @return number of vertices in the graph
+     */
+    private Integer updateAfterPopulate() {
+        if (mode == QueryMode.PRECOMPUTED && engine instanceof CompactPathStore) {
+            //only paths through the new words are searched, the rest of the precomputed data is kept
+            snapshot = graph.freeze(vertexIndex);
+            components = ComponentIndex.extend(components, snapshot);
+            engine = CompactPathStore.extend((CompactPathStore) engine, snapshot);
+            publish();
+        } else {
+            shortestPathPrecomputation();
+        }
+        return snapshot.vertexCount();
+    }
+
+    /**
+     * Removes a word and all of its edges from the graph, for example to prune a banned word from a dictionary.
+     * 
+     * Only the word and its neighbors are read from the graph again, the snapshot rows of every other word
+     * are copied over {@link Graph#freeze(CsrGraph, Iterable)}. If paths were precomputed, only the sources whose
+     * shortest paths went through the word are searched again {@link CompactPathStore#removeEdges(CompactPathStore, CsrGraph, int[][])}.
+     * Modes that do not update their engine build it again.
+     * 
+     * @param word word to remove
+     * @return true if the word was in the graph
+     */
+    public synchronized boolean removeWord(String word) {
+        if (vertexIndex.idOf(word) == -1) {
+            return false;
+        }
+        int id = snapshot.idOf(word);
+        List<int[]> removedEdges = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        changed.add(word);
+        graph.forEachNeighbor(word, neighbor -> {
+            removedEdges.add(new int[] {id, snapshot.idOf(neighbor)});
+            changed.add(neighbor);
+        });
+        graph.removeVertex(word);
+        vertexIndex.remove(word);
+        adjacencyIndex.remove(word);
+        updateAfterRemoval(removedEdges, changed);
+        publish();
+        return true;
+    }
+
+    /**
+     * Removes the edge between two adjacent words, keeping both words in the graph.
+     * 
+     * Only the two words are read from the graph again, the snapshot rows of every other word are copied over.
+     * If paths were precomputed, only the sources whose shortest paths used the edge are searched again.
+     * 
+     * @param word1 first word
+     * @param word2 second word
+     * @return true if the words were adjacent in the graph
+     */
+    public synchronized boolean removeEdge(String word1, String word2) {
+        if (word1 == null || word2 == null || !graph.isAdjacent(word1, word2)) {
+            return false;
+        }
+        graph.removeEdge(word1, word2);
+        List<int[]> removedEdges = new ArrayList<>();
+        removedEdges.add(new int[] {snapshot.idOf(word1), snapshot.idOf(word2)});
+        updateAfterRemoval(removedEdges, Arrays.asList(word1, word2));
+        publish();
+        return true;
+    }
+
+    /**
+     * Saves the words and their edges to a file {@link GraphSnapshot}, so they can be loaded again
+     * with {@link #loadGraph(String)} without finding the adjacent words of every word.
+     * 
+     * @param filepath file to write
+     * @throws IOException if the file can not be written
+     */
+    public synchronized void saveGraph(String filepath) throws IOException {
+        GraphSnapshot.write(graph, Paths.get(filepath));
+    }
+
+    /**
+     * Replaces the graph with the one saved in a file by {@link #saveGraph(String)}, and computes
+     * the shortest paths of it as {@link #populateGraph(String)} would.
+     * 
+     * @param filepath file to load
+     * @return Integer the number of vertices (words) loaded
+     * @throws IOException if the file can not be read or is not a graph snapshot
+     */
+    public synchronized Integer loadGraph(String filepath) throws IOException {
+        graph = GraphSnapshot.read(Paths.get(filepath));
+        adjacencyIndex = new WordAdjacencyIndex(graph.getAllVertices());
         shortestPathPrecomputation();
-        return vertices.size();
+        return snapshot.vertexCount();
+    }
+
+    /**
+     * Saves the words, their edges and the precomputed paths to a file {@link MappedPathIndex}, so another
+     * process can answer queries right away with {@link #loadPaths(String)}.
+     * Paths loaded with {@link #loadPaths(String)} and not changed since are saved again as they were loaded.
+     * 
+     * @param filepath file to write
+     * @throws IOException if the file can not be written
+     * @throws IllegalStateException if paths were neither precomputed in {@link QueryMode#PRECOMPUTED} mode nor loaded
+     */
+    public synchronized void savePaths(String filepath) throws IOException {
+        if (engine instanceof MappedPathIndex) {
+            ((MappedPathIndex) engine).save(Paths.get(filepath));
+        } else if (engine instanceof CompactPathStore) {
+            MappedPathIndex.save((CompactPathStore) engine, snapshot, Paths.get(filepath));
+        } else {
+            throw new IllegalStateException("paths have not been precomputed");
+        }
+    }
+
+    /**
+     * Replaces the graph with the one saved in a file by {@link #savePaths(String)}. Queries read the saved
+     * paths straight from the memory mapped file, nothing is searched.
+     * 
+     * The graph is rebuilt from the file so words can still be added and removed, which computes
+     * the paths again in the mode of this processor.
+     * 
+     * @param filepath file to load
+     * @return Integer the number of vertices (words) loaded
+     * @throws IOException if the file can not be read or is not a path index
+     */
+    public synchronized Integer loadPaths(String filepath) throws IOException {
+        MappedPathIndex index = MappedPathIndex.load(filepath);
+        graph = new Graph<>();
+        vertexIndex = new VertexIndex<>();
+        snapshot = index.graph();
+        for (int v = 0; v < snapshot.size(); v++) {
+            String word = snapshot.vertex(v);
+            if (word == null) {
+                vertexIndex.reserve();
+            } else {
+                vertexIndex.add(word);
+                graph.addVertex(word);
+            }
+        }
+        adjacencyIndex = new WordAdjacencyIndex(graph.getAllVertices());
+        for (int v = 0; v < snapshot.size(); v++) {
+            for (int slot = 0; slot < snapshot.degree(v); slot++) {
+                if (snapshot.neighbor(v, slot) > v) { //each edge once
+                    graph.addEdge(snapshot.vertex(v), snapshot.vertex(snapshot.neighbor(v, slot)));
+                }
+            }
+        }
+        engine = index;
+        components = ComponentIndex.build(snapshot);
+        publish();
+        return snapshot.vertexCount();
+    }
 
+    /*
+     * patches the snapshot rows of the changed words, keeping the ids of the remaining words,
+     * and updates the engine for the removed edges
+     */
+    private void updateAfterRemoval(List<int[]> removedEdges, List<String> changed) {
+        snapshot = graph.freeze(snapshot, changed);
+        components = ComponentIndex.removeEdges(components, snapshot, removedEdges.toArray(new int[0][]));
+        if (engine instanceof CompactPathStore) {
+            engine = CompactPathStore.removeEdges((CompactPathStore) engine, snapshot, removedEdges.toArray(new int[0][]));
+        } else {
+            buildEngine(); //other engines are built again over the new snapshot
+        }
     }
 
 
@@ -111,51 +439,7 @@ public class GraphProcessor {
      * @return List<String> list of the words
      */
     public List<String> getShortestPath(String word1, String word2) {
-        
-        
-        
-        List<String> list = new ArrayList<>();
-        if (word1 == null || word2 == null || word1 == "" || word2 == "") {
-            return list;
-        }
-        
-        if (word1.equals(word2)) {
-            list.add(word1);
-            return list;
-        }
-        
-        int reverse = 0; //check wether to reverse path afterwards
-        
-        //reverse words if word1 has a higher index, due to bottom half of matrix only working for predecessors
-        if (vertices.indexOf(word1) < vertices.indexOf(word2)) {
-            String temp = word2;
-            word2 = word1;
-            word1 = temp;
-            reverse = 1;
-        }
-        
-        //follows predecessor matrix to trace shortest path
-        //System.out.println("word1 index: " + vertices.indexOf(word1) + " word2 index: " + vertices.indexOf(word2));
-        if (predMatrix[vertices.indexOf(word1)][vertices.indexOf(word2)] == null) {
-            //System.out.println("initial was null");
-            return list;
-        }
-        list.add(word1);
-        while (!(predMatrix[vertices.indexOf(word1)][vertices.indexOf(word2)].equals(word2))) {
-            //System.out.println("checking: " + word1 + " to: " + word2);
-            list.add(predMatrix[vertices.indexOf(word1)][vertices.indexOf(word2)]);
-            word1 = predMatrix[vertices.indexOf(word1)][vertices.indexOf(word2)];
-        }
-        //System.out.println("checking: " + word1 + " to: " + word2);
-        
-        
-        list.add(word2);
-
-        if (reverse == 1) {
-            Collections.reverse(list);
-        }
-        return list;
-
+        return published.getShortestPath(word1, word2);
     }
 
     /**
@@ -176,92 +460,124 @@ public class GraphProcessor {
      * @return Integer distance
      */
     public Integer getShortestDistance(String word1, String word2) {
-        //gets integer distance from distance matrix
-        if (word1 == null || word2 == null || word1 == "" || word2 == "") {
-            return null;
-        }
-        return distanceMatrix[vertices.indexOf(word1)][vertices.indexOf(word2)]; 
+        return published.getShortestDistance(word1, word2);
+    }
+
+    /**
+     * Gets the distance from a word to every other word at once, with a single search instead of
+     * one query per word. Paths to any word can be read back from the result without searching again.
+     * 
+     * @param word word to measure distances from
+     * @return distances and parents of every word indexed by id {@link SourceDistances}, null if the word is not in the graph
+     */
+    public SourceDistances getShortestDistances(String word) {
+        return published.getShortestDistances(word);
+    }
+
+    /**
+     * Finds the shortest paths of a batch of word pairs in parallel, all on the same snapshot.
+     * Pairs starting from the same word share one search {@link QuerySnapshot#getShortestPaths(Collection, Executor, boolean)}.
+     * 
+     * @param queries pairs of words
+     * @param executor runs the searches, for example a {@link java.util.concurrent.ForkJoinPool}
+     * @param inputOrder true to stream results in the order of the queries, false to stream them as they complete
+     * @return stream of one result per query
+     */
+    public Stream<PathResult> getShortestPaths(Collection<PathQuery> queries, Executor executor, boolean inputOrder) {
+        return published.getShortestPaths(queries, executor, inputOrder);
+    }
+
+    /**
+     * Finds the shortest paths of a stream of word pairs in parallel, reading the whole stream first
+     * so pairs can be grouped by their first word
+     * 
+     * @param queries pairs of words
+     * @param executor runs the searches
+     * @param inputOrder true to stream results in the order of the queries, false to stream them as they complete
+     * @return stream of one result per query
+     */
+    public Stream<PathResult> getShortestPaths(Stream<PathQuery> queries, Executor executor, boolean inputOrder) {
+        return getShortestPaths(queries.collect(Collectors.toList()), executor, inputOrder);
+    }
+
+    /**
+     * Gets the connected components of the words, for example to check how many words can reach each other.
+     * Words in different components have no path, which queries answer without searching.
+     * 
+     * @return components of the words, indexed by the ids of {@link #getSnapshot()}, see {@link QuerySnapshot#componentOf(String)}
+     */
+    public ComponentIndex getComponents() {
+        return published.components();
     }
 
     /**
-     * Computes shortest paths and distances between all possible pairs of vertices.
+     * Gets the words and paths queries are currently answered from. The snapshot never changes, so several
+     * queries on it see the same version of the dictionary even while it is being reloaded.
+     * 
+     * @return latest snapshot published
+     */
+    public QuerySnapshot getSnapshot() {
+        return published;
+    }
+
+    /**
+     * Freezes the graph into a snapshot, finds its connected components and builds the engine of the
+     * query mode over it, then publishes all three to queries at once.
      * This method is called after every set of updates in the graph to recompute the path information.
-     * Any shortest path algorithm can be used (Djikstra's or Floyd-Warshall recommended).
+     * What is built depends on the mode:
+     *  - {@link QueryMode#PRECOMPUTED}: a breadth first search from every vertex in parallel {@link AllPairsBfs} fills
+     *    a {@link CompactPathStore} with the distance and next hop of every pair, 1.5 bytes per pair for typical dictionaries.
+     *  - {@link QueryMode#COMPONENT_BLOCKS}: a search from every vertex over its own component fills one block per component {@link ComponentBlockStore},
+     *    skipping pairs in different components.
+     *  - {@link QueryMode#LANDMARK_LABELS}: one pruned search per vertex builds the hub labels {@link PrunedLandmarkLabels}.
+     *  - {@link QueryMode#ALT}: one search per landmark fills the landmark distances {@link LandmarkAStar}.
+     *  - {@link QueryMode#LAZY}, {@link QueryMode#BIDIRECTIONAL} and {@link QueryMode#EDIT_DISTANCE}: nothing is
+     *    searched here, queries search the graph themselves.
      */
-    public void shortestPathPrecomputation() {
-        
-        //sets up predecessor matrix by filling collumns with corresponding vertex (determined through index in vertices arraylist)
-        //sets up distance matrix by checking for 1 length adjacencies and placing a 1 in corresponding index of matrix, else set to deafult of Integer.MAX_VALUE
-        distanceMatrix = new int[vertices.size()][vertices.size()];
-        predMatrix = new String[vertices.size()][vertices.size()];
-
-        for (int i = 0; i < vertices.size(); i++) {
-            for (int j = i; j < vertices.size(); j++) {
-                if (i == j) {
-                    distanceMatrix[i][j] = 0;
-                    predMatrix[i][j] = null;
-                }
-                else if(graph.isAdjacent(vertices.get(i), vertices.get(j))) {
-                    distanceMatrix[i][j] = distanceMatrix[j][i] = 1;
-                    predMatrix[i][j] = vertices.get(j);
-                    predMatrix[j][i] = vertices.get(i);
-                }
-                else {
-                    distanceMatrix[i][j] = distanceMatrix[j][i] = Integer.MAX_VALUE;
-                }
-            }
-        }
+    public synchronized void shortestPathPrecomputation() {
         
-//        for (int i = 0; i < vertices.size(); i++) {
-//            for (int j = 0; j < vertices.size(); j++) {
-//                System.out.print(distanceMatrix[i][j] + "\t");
-//            }
-//            System.out.println();
-//        }
-            
+        //searches run over a frozen compressed sparse row copy of the graph, ids of removed words are reclaimed here
+        vertexIndex = new VertexIndex<>(graph.getAllVertices());
+        snapshot = graph.freeze(vertexIndex);
+        components = ComponentIndex.build(snapshot);
+        buildEngine();
+        publish();
+    }
 
-        
-        //implements floyd-warshal for shortest path and distance of a undirected graph
-        for (int k = 0; k < vertices.size(); k++) { 
-            int[][] nextDistanceMatrix = new int[vertices.size()][vertices.size()];
-            String[][] nextPredMatrix = new String[vertices.size()][vertices.size()];
-            for (int i = 0; i < vertices.size(); i++) {
-                for (int j = 0; j < vertices.size(); j++) {
-                    if (i != k && j != k && j != i) { //for undirected graph
-                        //checks if components are not infinity, would never be smaller
-                        if (distanceMatrix[i][k] != Integer.MAX_VALUE && distanceMatrix[k][j] != Integer.MAX_VALUE) { 
-                            //checks if path through k is shorter than direct path
-                            if (distanceMatrix[i][j] > distanceMatrix[i][k] + distanceMatrix[k][j]) {
-                                //update distance and predecessor matrix
-                                nextDistanceMatrix[i][j] = nextDistanceMatrix[j][i] = distanceMatrix[i][k] + distanceMatrix[k][j];
-                                nextPredMatrix[i][j] = predMatrix[i][k];
-                            }
-                            else {
-                                nextDistanceMatrix[i][j] = distanceMatrix[i][j];
-                                nextPredMatrix[i][j] = predMatrix[i][j];
-                            }
-                        } else {
-                            nextDistanceMatrix[i][j] = distanceMatrix[i][j];
-                            nextPredMatrix[i][j] = predMatrix[i][j];
-                        }
-                    }else {
-                        nextDistanceMatrix[i][j]= distanceMatrix[i][j];
-                        nextPredMatrix[i][j] = predMatrix[i][j];
-                    }
-                }
-            }
-            distanceMatrix = nextDistanceMatrix;
-            predMatrix = nextPredMatrix;
+    /*
+     * makes the current snapshot and engine visible to queries, in one step
+     */
+    private void publish() {
+        published = new QuerySnapshot(published.version() + 1, snapshot, engine, components);
+    }
 
+    /*
+     * builds the engine of the query mode over the current snapshot
+     */
+    private void buildEngine() {
+        //distance is Integer.MAX_VALUE and there is no next hop for vertices that can not be reached
+        switch (mode) {
+            case LAZY:
+                engine = new BfsTreeCache(snapshot, cachedTrees);
+                break;
+            case BIDIRECTIONAL:
+                engine = new BidirectionalBfs(snapshot);
+                break;
+            case COMPONENT_BLOCKS:
+                engine = ComponentBlockStore.build(snapshot, components);
+                break;
+            case LANDMARK_LABELS:
+                engine = PrunedLandmarkLabels.build(snapshot);
+                break;
+            case ALT:
+                engine = LandmarkAStar.build(snapshot, components, landmarks);
+                break;
+            case EDIT_DISTANCE:
+                engine = new EditDistanceAStar(snapshot);
+                break;
+            default:
+                engine = CompactPathStore.build(snapshot);
         }
-        
-//        for (int i = 0; i < vertices.size(); i++) {
-//            for (int j = 0; j < vertices.size(); j++) {
-//                System.out.print(distanceMatrix[i][j] + "\t");
-//            }
-//            System.out.println();
-//        }
-
     }
 }
 
@@ -3,9 +3,21 @@ import static org.junit.Assert.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -22,6 +34,12 @@ public class GraphProcessorTest {
     Object expected = null;
     Object actual = null;
 
+    /**
+     * Seed of the random word pairs of the tests from test27 on, a failing pair can be replayed by running the test again
+     */
+    static final long SEED = 0x5EEDL;
+    Random random = new Random(SEED);
+
     @Rule
     public ExpectedException thrown = ExpectedException.none();
 
@@ -413,6 +431,789 @@ public class GraphProcessorTest {
             fail("expected: " + expected + " actual: " + actual);
         }
     }
+
+    /**
+     * Tests that a GraphProcessor in lazy mode, which searches on demand instead of precomputing,
+     * gives the same distances as the default mode and paths of that length.
+     */
+    @Test
+    public void test27_lazy_mode_matches_precomputed() throws IOException {
+        GraphProcessor lazy = new GraphProcessor(GraphProcessor.QueryMode.LAZY, 8);
+        GraphProcessor precomputed = new GraphProcessor();
+        lazy.populateGraph("word_list.txt");
+        precomputed.populateGraph("word_list.txt");
+        assertSameAnswers(precomputed, lazy, distinctWords("word_list.txt"), 1024, false);
+    }
+
+    /**
+     * Tests that a GraphProcessor in bidirectional mode, which searches from both words for every query,
+     * gives the same distances as the default mode and paths of that length.
+     */
+    @Test
+    public void test28_bidirectional_mode_matches_precomputed() throws IOException {
+        GraphProcessor bidirectional = new GraphProcessor(GraphProcessor.QueryMode.BIDIRECTIONAL);
+        GraphProcessor precomputed = new GraphProcessor();
+        bidirectional.populateGraph("word_list.txt");
+        precomputed.populateGraph("word_list.txt");
+        assertSameAnswers(precomputed, bidirectional, distinctWords("word_list.txt"), 1024, false);
+    }
+
+    /**
+     * Tests that paths precomputed incrementally, by populating the graph from several files,
+     * have the same distances as paths searched on demand in the graph with all of the words.
+     */
+    @Test
+    public void test29_incremental_populateGraph_matches_search() throws IOException {
+        GraphProcessor incremental = new GraphProcessor();
+        GraphProcessor bidirectional = new GraphProcessor(GraphProcessor.QueryMode.BIDIRECTIONAL);
+        for (String file : new String[] {"text.txt", "word_list.txt", "testFile1.txt"}) {
+            incremental.populateGraph(file);
+            bidirectional.populateGraph(file);
+        }
+        assertSameAnswers(bidirectional, incremental, distinctWords("text.txt", "word_list.txt", "testFile1.txt"), 4096, false);
+    }
+    
+    /**
+     * tests that removing words and edges updates precomputed paths the same as searching the pruned graph
+     */
+    @Test
+    public void test30_removals_match_search() throws IOException {
+        GraphProcessor precomputed = new GraphProcessor();
+        GraphProcessor bidirectional = new GraphProcessor(GraphProcessor.QueryMode.BIDIRECTIONAL);
+        precomputed.populateGraph("word_list.txt");
+        bidirectional.populateGraph("word_list.txt");
+        List<String> words = distinctWords("word_list.txt");
+        for (int i = 0; i < 64; i++) {
+            String word = words.remove(random.nextInt(words.size()));
+            assertEquals(bidirectional.removeWord(word), precomputed.removeWord(word));
+            assertEquals(null, precomputed.getShortestDistance(word, words.get(0)));
+        }
+        for (int i = 0; i < 256; i++) {
+            List<String> path = bidirectional.getShortestPath(randomWord(words),
+                    randomWord(words));
+            if (path.size() > 1) {
+                int hop = random.nextInt(path.size() - 1);
+                assertEquals(true, bidirectional.removeEdge(path.get(hop), path.get(hop + 1)));
+                assertEquals(true, precomputed.removeEdge(path.get(hop), path.get(hop + 1)));
+            }
+        }
+        assertSameAnswers(bidirectional, precomputed, words, 4096, false);
+    }
     
 
-}
\ No newline at end of file
+    /**
+     * tests that paths saved to a file and loaded into a new processor answer the same as the original,
+     * and that the loaded processor can still be changed
+     */
+    @Test
+    public void test31_saved_paths_match_after_load() throws IOException {
+        GraphProcessor original = new GraphProcessor();
+        original.populateGraph("word_list.txt");
+        original.removeWord("CHARGE");
+        File file = File.createTempFile("paths", ".idx");
+        file.deleteOnExit();
+        original.savePaths(file.getAbsolutePath());
+        GraphProcessor loaded = new GraphProcessor();
+        assertEquals(Integer.valueOf(original.getSnapshot().vertexCount()), loaded.loadPaths(file.getAbsolutePath()));
+        assertSameAnswers(original, loaded, distinctWords("word_list.txt"), 4096, true);
+        loaded.populateGraph("text.txt");
+        original.populateGraph("text.txt");
+        assertEquals(original.getShortestDistance("CAT", "WHEAT"), loaded.getShortestDistance("CAT", "WHEAT"));
+        try {
+            loaded.loadPaths("word_list.txt");
+            fail("loaded a file that is not a path index");
+        } catch (IOException e) {
+            //expected
+        }
+    }
+
+    /**
+     * tests that a graph saved to a snapshot loads into a processor that answers the same paths
+     */
+    @Test
+    public void test32_saved_graph_matches_after_load() throws IOException {
+        GraphProcessor original = new GraphProcessor();
+        original.populateGraph("word_list.txt");
+        List<String> removed = original.getShortestPath("CHARGE", "GIMLETS");
+        assertEquals(true, original.removeEdge(removed.get(0), removed.get(1)));
+        File file = File.createTempFile("graph", ".snapshot");
+        file.deleteOnExit();
+        original.saveGraph(file.getAbsolutePath());
+        GraphProcessor loaded = new GraphProcessor();
+        assertEquals(Integer.valueOf(original.getSnapshot().vertexCount()), loaded.loadGraph(file.getAbsolutePath()));
+        assertEquals(false, loaded.removeEdge(removed.get(0), removed.get(1)));
+        assertSameAnswers(original, loaded, distinctWords("word_list.txt"), 4096, true);
+    }
+
+    /**
+     * tests that the memory mapped word reader gives the same words in the same order as the line reader,
+     * read sequentially and in parallel
+     */
+    @Test
+    public void test33_mapped_word_stream_matches_line_stream() throws IOException {
+        for (String file : new String[] {"text.txt", "word_list.txt", "testFile1.txt", path.getAbsolutePath()}) {
+            List<String> lines = WordProcessor.getWordStream(file).collect(Collectors.toList());
+            assertEquals(lines, WordProcessor.getWordStream(file, false).collect(Collectors.toList()));
+            assertEquals(lines, WordProcessor.getWordStream(file, true).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * tests that a parallel build gives the same vertex count and the same paths as a sequential one
+     */
+    @Test
+    public void test34_parallel_populateGraph_matches_sequential() throws IOException {
+        GraphProcessor sequential = new GraphProcessor();
+        GraphProcessor parallel = new GraphProcessor();
+        for (String file : new String[] {"text.txt", "word_list.txt", "testFile1.txt"}) {
+            assertEquals(sequential.populateGraph(file), parallel.populateGraph(file, true));
+        }
+        assertSameAnswers(sequential, parallel, distinctWords("text.txt", "word_list.txt", "testFile1.txt"), 4096, true);
+    }
+
+    /**
+     * tests that a snapshot keeps answering from its own version while the dictionary changes,
+     * and that queries running during a reload never fail
+     */
+    @Test
+    public void test35_snapshot_isolated_from_reload() throws InterruptedException {
+        GraphProcessor processor = new GraphProcessor();
+        processor.populateGraph("word_list.txt");
+        QuerySnapshot before = processor.getSnapshot();
+        List<String> path = before.getShortestPath("CHARGE", "GIMLETS");
+
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean reloading = new AtomicBoolean(true);
+        Thread reader = new Thread(() -> {
+            try {
+                while (reloading.get()) {
+                    QuerySnapshot snapshot = processor.getSnapshot();
+                    List<String> current = snapshot.getShortestPath("CHARGE", "GIMLETS");
+                    Integer distance = snapshot.getShortestDistance("CHARGE", "GIMLETS");
+                    if (!current.isEmpty() && distance != current.size() - 1) {
+                        errors.add(new AssertionError("path " + current + " does not match distance " + distance));
+                    }
+                }
+            } catch (Throwable e) {
+                errors.add(e);
+            }
+        });
+        reader.start();
+        for (String word : path.subList(1, path.size() - 1)) {
+            processor.removeWord(word);
+        }
+        processor.populateGraph("text.txt");
+        processor.populateGraph("word_list.txt", true);
+        reloading.set(false);
+        reader.join();
+
+        assertEquals(new ArrayList<>(), errors);
+        assertEquals(path, before.getShortestPath("CHARGE", "GIMLETS"));
+        assertEquals(true, processor.getSnapshot().version() > before.version());
+    }
+
+    /**
+     * tests that a batch of queries answers every pair like the single queries do, in input order
+     * or as completed, for a precomputed and a searching mode
+     */
+    @Test
+    public void test36_batch_queries_match_single_queries() throws IOException {
+        List<String> words = new ArrayList<>();
+        WordProcessor.getWordStream("word_list.txt").forEach(words::add);
+        List<PathQuery> queries = new ArrayList<>();
+        for (int i = 0; i < 2048; i++) {
+            //few first words, so many queries share a search
+            queries.add(new PathQuery(words.get(random.nextInt(16)),
+                    randomWord(words)));
+        }
+        queries.add(new PathQuery("NOTAWORD", "CAT"));
+        queries.add(new PathQuery(null, "CAT"));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (GraphProcessor.QueryMode mode : GraphProcessor.QueryMode.values()) {
+                GraphProcessor processor = new GraphProcessor(mode);
+                processor.populateGraph("word_list.txt");
+                List<PathResult> ordered = processor.getShortestPaths(queries, executor, true).collect(Collectors.toList());
+                assertEquals(queries.size(), ordered.size());
+                for (int i = 0; i < queries.size(); i++) {
+                    PathQuery query = ordered.get(i).query();
+                    assertEquals(queries.get(i), query);
+                    assertEquals(i, ordered.get(i).index());
+                    assertEquals(processor.getShortestDistance(query.word1(), query.word2()), ordered.get(i).distance());
+                    assertEquals(processor.getShortestPath(query.word1(), query.word2()).size(), ordered.get(i).path().size());
+                }
+                boolean[] seen = new boolean[queries.size()];
+                processor.getShortestPaths(queries.stream(), executor, false).forEach(result -> seen[result.index()] = true);
+                for (boolean answered : seen) {
+                    assertEquals(true, answered);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * tests that single source distances match the pair queries for every word
+     */
+    @Test
+    public void test37_single_source_distances_match_pair_queries() throws IOException {
+        GraphProcessor processor = new GraphProcessor();
+        processor.populateGraph("word_list.txt");
+        assertEquals(null, processor.getShortestDistances("NOTAWORD"));
+        SourceDistances distances = processor.getShortestDistances("CHARGE");
+        assertEquals("CHARGE", distances.source());
+        List<String> words = new ArrayList<>();
+        WordProcessor.getWordStream("word_list.txt").distinct().forEach(words::add);
+        int reachable = 0;
+        for (String word : words) {
+            Integer distance = processor.getShortestDistance("CHARGE", word);
+            assertEquals(distance, distances.distance(word));
+            List<String> path = distances.pathTo(word);
+            if (distance != Integer.MAX_VALUE) {
+                reachable++;
+                assertEquals(distance + 1, path.size());
+                assertEquals("CHARGE", path.get(0));
+                assertEquals(word, path.get(path.size() - 1));
+                for (int i = 1; i < path.size(); i++) {
+                    assertEquals(true, WordProcessor.isAdjacent(path.get(i - 1), path.get(i)));
+                }
+            } else {
+                assertEquals(0, path.size());
+            }
+        }
+        assertEquals(reachable, distances.reachable().count());
+    }
+
+    /**
+     * tests that the component index agrees with the distances, after words and edges are removed
+     */
+    @Test
+    public void test38_components_match_distances() throws IOException {
+        GraphProcessor processor = new GraphProcessor();
+        processor.populateGraph("word_list.txt");
+        List<String> words = distinctWords("word_list.txt");
+        List<String> path = processor.getShortestPath("CHARGE", "GIMLETS");
+        processor.removeEdge(path.get(0), path.get(1));
+        processor.removeWord(path.get(path.size() / 2));
+        processor.populateGraph("text.txt");
+
+        QuerySnapshot snapshot = processor.getSnapshot();
+        ComponentIndex components = processor.getComponents();
+        int total = 0;
+        for (int size : components.componentSizes()) {
+            total += size;
+        }
+        assertEquals(snapshot.vertexCount(), total);
+        for (int i = 0; i < 4096; i++) {
+            String s1 = randomWord(words);
+            String s2 = randomWord(words);
+            Integer distance = processor.getShortestDistance(s1, s2);
+            if (distance != null) {
+                assertEquals(distance != Integer.MAX_VALUE, snapshot.componentOf(s1) == snapshot.componentOf(s2));
+            }
+        }
+    }
+
+    /**
+     * tests that per component blocks give the same paths as the table over every pair, after words
+     * and edges are removed, and only store pairs within a component
+     */
+    @Test
+    public void test39_component_blocks_match_precomputed() throws IOException {
+        GraphProcessor blocks = new GraphProcessor(GraphProcessor.QueryMode.COMPONENT_BLOCKS);
+        GraphProcessor precomputed = new GraphProcessor();
+        for (GraphProcessor processor : new GraphProcessor[] {blocks, precomputed}) {
+            processor.populateGraph("word_list.txt");
+            processor.removeEdge("CHARGE", processor.getShortestPath("CHARGE", "GIMLETS").get(1));
+            processor.populateGraph("text.txt");
+        }
+        assertSameAnswers(precomputed, blocks, distinctWords("word_list.txt"), 4096, true);
+    }
+
+    /**
+     * tests that landmark labels give exact distances and valid paths of that length, after words and edges are removed
+     */
+    @Test
+    public void test40_landmark_labels_match_precomputed() throws IOException {
+        GraphProcessor labels = new GraphProcessor(GraphProcessor.QueryMode.LANDMARK_LABELS);
+        GraphProcessor precomputed = new GraphProcessor();
+        for (GraphProcessor processor : new GraphProcessor[] {labels, precomputed}) {
+            processor.populateGraph("word_list.txt");
+            processor.removeEdge("CHARGE", processor.getShortestPath("CHARGE", "GIMLETS").get(1));
+            processor.populateGraph("text.txt");
+        }
+        assertSameAnswers(precomputed, labels, distinctWords("word_list.txt"), 4096, false);
+    }
+
+    /**
+     * tests that A* searches guided by landmarks find paths as short as the precomputed ones,
+     * for a single landmark and for more landmarks than the graph needs
+     */
+    @Test
+    public void test41_alt_mode_matches_precomputed() throws IOException {
+        GraphProcessor precomputed = new GraphProcessor();
+        precomputed.populateGraph("word_list.txt");
+        List<String> words = distinctWords("word_list.txt");
+        for (int landmarks : new int[] {1, GraphProcessor.DEFAULT_LANDMARKS, 4096}) {
+            GraphProcessor alt = GraphProcessor.withLandmarks(landmarks);
+            alt.populateGraph("word_list.txt");
+            assertSameAnswers(precomputed, alt, words, 1024, false);
+        }
+    }
+
+    /**
+     * tests that A* searches guided by edit distance find paths as short as the precomputed ones,
+     * and that the bounded edit distance stops at its bound
+     */
+    @Test
+    public void test42_edit_distance_mode_matches_precomputed() throws IOException {
+        int[] row = new int[64];
+        assertEquals(3, WordProcessor.editDistance("KITTEN", "SITTING", 5, row));
+        assertEquals(6, WordProcessor.editDistance("ABCDEF", "UVWXYZ", 6, row));
+        assertEquals(3, WordProcessor.editDistance("ABCDEF", "UVWXYZ", 2, row));
+        assertEquals(0, WordProcessor.editDistance("CAT", "CAT", 0, row));
+        assertEquals(1, WordProcessor.editDistance("CAT", "CART", 1, row));
+
+        GraphProcessor precomputed = new GraphProcessor();
+        GraphProcessor editDistance = new GraphProcessor(GraphProcessor.QueryMode.EDIT_DISTANCE);
+        precomputed.populateGraph("word_list.txt");
+        editDistance.populateGraph("word_list.txt");
+        List<String> words = distinctWords("word_list.txt");
+        assertSameAnswers(precomputed, editDistance, words, 2048, false);
+        for (int i = 0; i < 2048; i++) {
+            String s1 = randomWord(words);
+            String s2 = randomWord(words);
+            Integer distance = precomputed.getShortestDistance(s1, s2);
+            if (distance != Integer.MAX_VALUE) {
+                assertTrue(s1 + " to " + s2, WordProcessor.editDistance(s1, s2, distance, row) <= distance);
+            }
+        }
+    }
+
+    /**
+     * tests that a lazy cache holding a single tree answers like the precomputed paths while every query
+     * evicts the tree of the previous source
+     */
+    @Test
+    public void test43_lazy_mode_with_one_cached_tree() throws IOException {
+        GraphProcessor lazy = new GraphProcessor(GraphProcessor.QueryMode.LAZY, 1);
+        GraphProcessor precomputed = new GraphProcessor();
+        lazy.populateGraph("testFile1.txt");
+        precomputed.populateGraph("testFile1.txt");
+        for (String s1 : distinctWords("testFile1.txt")) {
+            for (String s2 : distinctWords("testFile1.txt")) {
+                assertSameAnswer(precomputed, lazy, s1, s2, false);
+                assertSameAnswer(precomputed, lazy, s2, s1, false);
+            }
+        }
+        assertSameAnswer(precomputed, lazy, "CAT", "NOTAWORD", false);
+    }
+
+    /**
+     * tests the cases where the two searches of the bidirectional mode meet: on an edge between the words,
+     * in the middle of an even and an odd length path, not at all, and for the same or an unknown word
+     */
+    @Test
+    public void test44_bidirectional_mode_meeting_cases() {
+        GraphProcessor bidirectional = new GraphProcessor(GraphProcessor.QueryMode.BIDIRECTIONAL);
+        bidirectional.populateGraph("testFile1.txt");
+        assertEquals(Arrays.asList("CAT", "CHAT"), bidirectional.getShortestPath("CAT", "CHAT"));
+        assertEquals(Integer.valueOf(2), bidirectional.getShortestDistance("CAT", "WHAT"));
+        assertEquals(Arrays.asList("CAT", "CHAT", "WHAT"), bidirectional.getShortestPath("CAT", "WHAT"));
+        assertEquals(Integer.valueOf(3), bidirectional.getShortestDistance("WHEAT", "CAT"));
+        assertEquals(4, bidirectional.getShortestPath("WHEAT", "CAT").size());
+        assertEquals(Integer.valueOf(Integer.MAX_VALUE), bidirectional.getShortestDistance("CAT", "BAG"));
+        assertEquals(new ArrayList<>(), bidirectional.getShortestPath("WHO", "CAT"));
+        assertEquals(Arrays.asList("WHO"), bidirectional.getShortestPath("WHO", "WHO"));
+        assertEquals(null, bidirectional.getShortestDistance("CAT", "NOTAWORD"));
+    }
+
+    /**
+     * tests that appending words that join two components extends the precomputed paths through them,
+     * and that words appended again are not added twice
+     */
+    @Test
+    public void test45_incremental_populateGraph_joins_components() throws IOException {
+        GraphProcessor incremental = new GraphProcessor();
+        assertEquals(Integer.valueOf(2), incremental.populateGraph(dictionary("CAT", "DOG")));
+        assertEquals(Integer.valueOf(Integer.MAX_VALUE), incremental.getShortestDistance("CAT", "DOG"));
+        assertEquals(Integer.valueOf(4), incremental.populateGraph(dictionary("COT", "DOT")));
+        assertEquals(Arrays.asList("CAT", "COT", "DOT", "DOG"), incremental.getShortestPath("CAT", "DOG"));
+        assertEquals(Integer.valueOf(5), incremental.populateGraph(dictionary("DOG", "DOGS", "CAT")));
+        assertEquals(Integer.valueOf(4), incremental.getShortestDistance("DOGS", "CAT"));
+
+        GraphProcessor search = new GraphProcessor(GraphProcessor.QueryMode.BIDIRECTIONAL);
+        search.populateGraph(dictionary("CAT", "DOG", "COT", "DOT", "DOGS"));
+        for (String s1 : Arrays.asList("CAT", "DOG", "COT", "DOT", "DOGS")) {
+            for (String s2 : Arrays.asList("CAT", "DOG", "COT", "DOT", "DOGS")) {
+                assertSameAnswer(search, incremental, s1, s2, false);
+            }
+        }
+    }
+
+    /**
+     * tests that removing the only word or edge between two parts of a chain makes them unreachable
+     * in the precomputed paths, and that appending the word again only brings back its own edges
+     */
+    @Test
+    public void test46_removing_cut_word_and_bridge() throws IOException {
+        GraphProcessor precomputed = new GraphProcessor();
+        precomputed.populateGraph(dictionary("CAT", "COT", "DOT", "DOG", "DIG"));
+        assertEquals(Integer.valueOf(4), precomputed.getShortestDistance("CAT", "DIG"));
+        assertEquals(true, precomputed.removeWord("COT"));
+        assertEquals(Integer.valueOf(Integer.MAX_VALUE), precomputed.getShortestDistance("CAT", "DOT"));
+        assertEquals(Arrays.asList("DOT", "DOG", "DIG"), precomputed.getShortestPath("DOT", "DIG"));
+        assertEquals(null, precomputed.getShortestDistance("COT", "DOT"));
+        assertEquals(false, precomputed.removeWord("COT"));
+
+        assertEquals(true, precomputed.removeEdge("DOG", "DOT"));
+        assertEquals(false, precomputed.removeEdge("DOG", "DOT"));
+        assertEquals(Integer.valueOf(Integer.MAX_VALUE), precomputed.getShortestDistance("DOT", "DIG"));
+        assertEquals(Integer.valueOf(1), precomputed.getShortestDistance("DOG", "DIG"));
+
+        //the word gets its edges back, the removed edge stays removed
+        precomputed.populateGraph(dictionary("COT"));
+        assertEquals(Arrays.asList("CAT", "COT", "DOT"), precomputed.getShortestPath("CAT", "DOT"));
+        assertEquals(Integer.valueOf(Integer.MAX_VALUE), precomputed.getShortestDistance("CAT", "DIG"));
+    }
+
+    /**
+     * tests that loaded paths can be saved again, to another file and over the file they were loaded from,
+     * and after they were changed
+     */
+    @Test
+    public void test47_saving_loaded_paths() throws IOException {
+        GraphProcessor original = new GraphProcessor();
+        original.populateGraph("word_list.txt");
+        File file = File.createTempFile("paths", ".idx");
+        file.deleteOnExit();
+        original.savePaths(file.getAbsolutePath());
+
+        GraphProcessor loaded = new GraphProcessor();
+        loaded.loadPaths(file.getAbsolutePath());
+        File copy = File.createTempFile("paths", ".idx");
+        copy.deleteOnExit();
+        loaded.savePaths(copy.getAbsolutePath());
+        assertEquals(true, Arrays.equals(Files.readAllBytes(file.toPath()), Files.readAllBytes(copy.toPath())));
+        loaded.savePaths(file.getAbsolutePath());
+        assertSameAnswers(original, loaded, distinctWords("word_list.txt"), 1024, true);
+
+        GraphProcessor reloaded = new GraphProcessor();
+        assertEquals(Integer.valueOf(original.getSnapshot().vertexCount()), reloaded.loadPaths(copy.getAbsolutePath()));
+        assertSameAnswers(original, reloaded, distinctWords("word_list.txt"), 1024, true);
+
+        //once changed the paths are precomputed again, and those are saved
+        loaded.removeWord("CHARGE");
+        original.removeWord("CHARGE");
+        loaded.savePaths(copy.getAbsolutePath());
+        assertEquals(Integer.valueOf(original.getSnapshot().vertexCount()), reloaded.loadPaths(copy.getAbsolutePath()));
+        assertSameAnswers(original, reloaded, distinctWords("word_list.txt"), 1024, true);
+    }
+
+    /**
+     * tests that removing an edge on a cycle keeps its component whole, and that removing a bridge
+     * splits the component in two with the sizes of either side
+     */
+    @Test
+    public void test48_removing_bridge_splits_component() throws IOException {
+        GraphProcessor processor = new GraphProcessor();
+        processor.populateGraph(dictionary("BAT", "CAT", "CAG", "BAG", "COT", "DOT", "DOG", "DIG", "QUIZ"));
+        assertComponents(processor, 1, 8);
+        QuerySnapshot before = processor.getSnapshot();
+        assertEquals(before.componentOf("BAT"), before.componentOf("DIG"));
+
+        assertEquals(true, processor.removeEdge("BAT", "CAT"));
+        assertComponents(processor, 1, 8);
+        assertEquals(Integer.valueOf(3), processor.getShortestDistance("BAT", "CAT"));
+
+        assertEquals(true, processor.removeEdge("COT", "DOT"));
+        assertComponents(processor, 1, 3, 5);
+        QuerySnapshot after = processor.getSnapshot();
+        assertEquals(after.componentOf("DOT"), after.componentOf("DIG"));
+        assertEquals(true, after.componentOf("COT") != after.componentOf("DOT"));
+        assertEquals(5, processor.getComponents().componentSize(after.componentOf("COT")));
+        assertEquals(5, processor.getComponents().largestComponentSize());
+        assertEquals(Integer.valueOf(Integer.MAX_VALUE), processor.getShortestDistance("CAT", "DOG"));
+    }
+
+    /**
+     * tests that every mode answers batches and single source distances the same as pair queries for a
+     * word with no edges and for pairs in different components, whether it stores paths or searches them
+     */
+    @Test
+    public void test49_batches_across_components_in_every_mode() throws IOException {
+        String file = dictionary("CAT", "COT", "DOG", "DIG", "QUIZ");
+        List<PathQuery> queries = new ArrayList<>();
+        for (String word1 : new String[] {"CAT", "QUIZ"}) {
+            for (String word2 : new String[] {"CAT", "COT", "DIG", "QUIZ"}) {
+                queries.add(new PathQuery(word1, word2));
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (GraphProcessor.QueryMode mode : GraphProcessor.QueryMode.values()) {
+                GraphProcessor processor = new GraphProcessor(mode);
+                processor.populateGraph(file);
+                assertEquals(Integer.valueOf(Integer.MAX_VALUE), processor.getShortestDistance("CAT", "DIG"));
+                assertEquals(Integer.valueOf(Integer.MAX_VALUE), processor.getShortestDistance("QUIZ", "CAT"));
+                assertEquals(Arrays.asList("QUIZ"), processor.getShortestPath("QUIZ", "QUIZ"));
+                for (PathResult result : processor.getShortestPaths(queries, executor, true).collect(Collectors.toList())) {
+                    PathQuery query = result.query();
+                    assertEquals(processor.getShortestDistance(query.word1(), query.word2()), result.distance());
+                    assertEquals(processor.getShortestPath(query.word1(), query.word2()), result.path());
+                }
+
+                SourceDistances distances = processor.getShortestDistances("QUIZ");
+                assertEquals(1, distances.reachable().count());
+                assertEquals(Integer.valueOf(0), distances.distance("QUIZ"));
+                assertEquals(Integer.valueOf(Integer.MAX_VALUE), distances.distance("CAT"));
+                assertEquals(0, distances.pathTo("DIG").size());
+                assertEquals(Integer.valueOf(1), processor.getShortestDistances("CAT").distance("COT"));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * tests landmark label paths whose best hub is one of their own ends, in a star whose center has the
+     * highest degree and is the hub of every label
+     */
+    @Test
+    public void test50_landmark_labels_hub_at_an_end() throws IOException {
+        GraphProcessor labels = new GraphProcessor(GraphProcessor.QueryMode.LANDMARK_LABELS);
+        labels.populateGraph(dictionary("CAT", "BAT", "COT", "CAB", "CATS", "DOT"));
+        assertEquals(Arrays.asList("CAT", "BAT"), labels.getShortestPath("CAT", "BAT"));
+        assertEquals(Arrays.asList("BAT", "CAT"), labels.getShortestPath("BAT", "CAT"));
+        assertEquals(Arrays.asList("CAT", "COT", "DOT"), labels.getShortestPath("CAT", "DOT"));
+        assertEquals(Arrays.asList("DOT", "COT", "CAT"), labels.getShortestPath("DOT", "CAT"));
+        assertEquals(Integer.valueOf(2), labels.getShortestDistance("DOT", "CAT"));
+        //COT is the end here, and ranked below CAT
+        assertEquals(Arrays.asList("COT", "DOT"), labels.getShortestPath("COT", "DOT"));
+        assertEquals(Arrays.asList("DOT", "COT", "CAT", "CATS"), labels.getShortestPath("DOT", "CATS"));
+        assertEquals(Integer.valueOf(3), labels.getShortestDistance("CATS", "DOT"));
+    }
+
+    /**
+     * tests alt mode with more landmarks than components and than words with edges, so every
+     * component has landmarks and the picking runs out of words before it runs out of landmarks
+     */
+    @Test
+    public void test51_alt_mode_more_landmarks_than_components() throws IOException {
+        String file = dictionary("CAT", "COT", "DOT", "DOG", "BIG", "BAG", "QUIZ");
+        GraphProcessor precomputed = new GraphProcessor();
+        precomputed.populateGraph(file);
+        List<String> words = distinctWords(file);
+        for (int landmarks : new int[] {2, 3, 64}) {
+            GraphProcessor alt = GraphProcessor.withLandmarks(landmarks);
+            assertEquals(Integer.valueOf(7), alt.populateGraph(file));
+            assertEquals(3, alt.getComponents().componentCount());
+            assertEquals(Integer.valueOf(Integer.MAX_VALUE), alt.getShortestDistance("CAT", "BIG"));
+            assertEquals(Integer.valueOf(Integer.MAX_VALUE), alt.getShortestDistance("QUIZ", "DOG"));
+            assertEquals(Arrays.asList("CAT", "COT", "DOT", "DOG"), alt.getShortestPath("CAT", "DOG"));
+            assertEquals(Arrays.asList("BAG", "BIG"), alt.getShortestPath("BAG", "BIG"));
+            for (String s1 : words) {
+                for (String s2 : words) {
+                    assertSameAnswer(precomputed, alt, s1, s2, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * tests that the adjacency index finds exactly the edges a pairwise {@link WordProcessor#isAdjacent(String, String)}
+     * scan finds, for the dictionary and for words of different lengths made of repeated letters,
+     * both through populateGraph and through the index itself
+     */
+    @Test
+    public void test52_adjacency_index_matches_pairwise_scan() throws IOException {
+        List<String> words = distinctWords("word_list.txt");
+        words.addAll(Arrays.asList("A", "AA", "AAA", "AAAA", "AAB", "ABA", "BAA", "AB", "BA", "B", "ABBA"));
+        GraphProcessor processor = new GraphProcessor();
+        processor.populateGraph(dictionary(words.toArray(new String[0])));
+        for (String s1 : words) {
+            for (String s2 : words) {
+                if (!s1.equals(s2)) {
+                    assertEquals(s1 + " " + s2, WordProcessor.isAdjacent(s1, s2),
+                            processor.getShortestDistance(s1, s2).intValue() == 1);
+                }
+            }
+        }
+
+        WordAdjacencyIndex index = new WordAdjacencyIndex();
+        for (int i = 0; i < words.size(); i++) {
+            assertEquals(words.get(i), adjacentWords(words.get(i), words.subList(0, i)), sorted(index.add(words.get(i))));
+        }
+        for (String word : words) {
+            assertEquals(word, adjacentWords(word, words), sorted(index.neighborsOf(word)));
+        }
+        //already indexed words are not added again, and have no new neighbors
+        assertEquals(0, index.add("AA").size());
+        assertEquals(0, index.add(words.get(0)).size());
+        assertEquals(words.size(), index.size());
+        assertEquals(adjacentWords("AA", words), sorted(index.neighborsOf("AA")));
+    }
+
+    /**
+     * tests that the parallel searches from every source give the distances of a plain single threaded
+     * breadth first search for every pair, that every first hop starts a shortest path, and that
+     * pairs in different components are unreachable
+     */
+    @Test
+    public void test53_all_pairs_bfs_matches_plain_bfs() throws IOException {
+        for (String[] files : new String[][] {{"word_list.txt"}, {"text.txt", "testFile1.txt", "word_list.txt"}}) {
+            List<String> words = distinctWords(files);
+            Graph<String> graph = new Graph<>();
+            for (String word : words) {
+                graph.addVertex(word);
+            }
+            for (String s1 : words) {
+                for (String s2 : words) {
+                    if (WordProcessor.isAdjacent(s1, s2)) {
+                        graph.addEdge(s1, s2);
+                    }
+                }
+            }
+            CsrGraph<String> snapshot = graph.freeze();
+            int n = snapshot.size();
+            int[][] distances = new int[n][];
+            int[][] firstHops = new int[n][];
+            ForkJoinPool pool = new ForkJoinPool(4);
+            try {
+                new AllPairsBfs(snapshot).run((source, distance, firstHopSlot) -> {
+                    distances[source] = distance.clone();
+                    firstHops[source] = firstHopSlot.clone();
+                }, pool);
+            } finally {
+                pool.shutdown();
+            }
+
+            List<Map<String, Integer>> expected = new ArrayList<>();
+            for (int source = 0; source < n; source++) {
+                expected.add(plainBfs(graph, snapshot.vertex(source)));
+            }
+            int unreachable = 0;
+            for (int source = 0; source < n; source++) {
+                for (int v = 0; v < n; v++) {
+                    int distance = expected.get(source).getOrDefault(snapshot.vertex(v), AllPairsBfs.UNREACHABLE);
+                    assertEquals(distance, distances[source][v]);
+                    if (distance == AllPairsBfs.UNREACHABLE || v == source) {
+                        assertEquals(-1, firstHops[source][v]);
+                        unreachable += v == source ? 0 : 1;
+                    } else {
+                        int hop = snapshot.neighbor(source, firstHops[source][v]);
+                        assertEquals(Integer.valueOf(distance - 1), expected.get(hop).get(snapshot.vertex(v)));
+                    }
+                }
+            }
+            assertTrue(unreachable > 0);
+        }
+    }
+
+    /*
+     * distinct words of the files, in the order they first appear
+     */
+    private static List<String> distinctWords(String... files) throws IOException {
+        List<String> words = new ArrayList<>();
+        for (String file : files) {
+            WordProcessor.getWordStream(file).forEach(words::add);
+        }
+        return words.stream().distinct().collect(Collectors.toList());
+    }
+
+    /*
+     * temporary dictionary file holding the words, one per line
+     */
+    private static String dictionary(String... words) throws IOException {
+        File file = File.createTempFile("dictionary", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), Arrays.asList(words));
+        return file.getAbsolutePath();
+    }
+
+    /*
+     * checks the number of components and their sizes, in ascending order
+     */
+    private static void assertComponents(GraphProcessor processor, int... sizes) {
+        ComponentIndex components = processor.getComponents();
+        int[] actual = components.componentSizes();
+        Arrays.sort(actual);
+        assertEquals(sizes.length, components.componentCount());
+        assertEquals(Arrays.toString(sizes), Arrays.toString(actual));
+    }
+
+    /*
+     * words adjacent to word by a pairwise scan, sorted
+     */
+    private static List<String> adjacentWords(String word, List<String> words) {
+        return sorted(words.stream().filter(other -> WordProcessor.isAdjacent(word, other)).collect(Collectors.toList()));
+    }
+
+    private static List<String> sorted(List<String> words) {
+        List<String> copy = new ArrayList<>(words);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    /*
+     * distances from source to every word it reaches, by a breadth first search over the graph itself
+     */
+    private static Map<String, Integer> plainBfs(Graph<String> graph, String source) {
+        Map<String, Integer> distances = new HashMap<>();
+        LinkedList<String> queue = new LinkedList<>();
+        distances.put(source, 0);
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            String word = queue.poll();
+            for (String neighbor : graph.getNeighbors(word)) {
+                if (!distances.containsKey(neighbor)) {
+                    distances.put(neighbor, distances.get(word) + 1);
+                    queue.add(neighbor);
+                }
+            }
+        }
+        return distances;
+    }
+
+    /*
+     * word picked by the seeded generator of the test
+     */
+    private String randomWord(List<String> words) {
+        return words.get(random.nextInt(words.size()));
+    }
+
+    /*
+     * asks both processors about random pairs of words. distances must be equal, and the paths of actual must
+     * have the same length as those of expected and go from the first word to the second through adjacent words.
+     * if samePaths, the paths must also be the same words
+     */
+    private void assertSameAnswers(GraphProcessor expected, GraphProcessor actual, List<String> words, int pairs, boolean samePaths) {
+        for (int i = 0; i < pairs; i++) {
+            assertSameAnswer(expected, actual, randomWord(words), randomWord(words), samePaths);
+        }
+    }
+
+    /*
+     * compares the answers of both processors for one pair of words, see assertSameAnswers
+     */
+    private static void assertSameAnswer(GraphProcessor expected, GraphProcessor actual, String s1, String s2, boolean samePaths) {
+        String pair = s1 + " to " + s2;
+        assertEquals(pair, expected.getShortestDistance(s1, s2), actual.getShortestDistance(s1, s2));
+        List<String> expectedPath = expected.getShortestPath(s1, s2);
+        List<String> path = actual.getShortestPath(s1, s2);
+        if (samePaths) {
+            assertEquals(pair, expectedPath, path);
+        } else {
+            assertEquals(pair + " path length", expectedPath.size(), path.size());
+        }
+        if (!path.isEmpty()) {
+            assertEquals(pair, s1, path.get(0));
+            assertEquals(pair, s2, path.get(path.size() - 1));
+        }
+        for (int j = 1; j < path.size(); j++) {
+            assertTrue(pair + " steps from " + path.get(j - 1) + " to " + path.get(j), WordProcessor.isAdjacent(path.get(j - 1), path.get(j)));
+        }
+    }
+
+}
@@ -0,0 +1,230 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary snapshot of a word graph, so a dictionary can be loaded again without finding
+ * the adjacent words of every word {@link WordAdjacencyIndex}.
+ *
+ * Words are numbered in the order the graph iterates them. Every adjacency list is stored in the
+ * order of the graph, as the gaps between consecutive neighbor ids (starting from the id of the vertex
+ * itself), zigzag encoded so negative gaps stay small and written as varints. Word graphs connect words
+ * that were added close together, so most gaps take one or two bytes.
+ *
+ * Reading appends every neighbor in its stored position, which gives a graph identical to the one
+ * written, down to the order of the neighbors of every vertex.
+ *
+ * File format, version 1: magic "WLGS" and version as big endian ints, then varints for the word count,
+ * the UTF-8 byte length and bytes of every word, and the degree and neighbor gaps of every word.
+ * Files are streamed through a direct buffer in both directions.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class GraphSnapshot {
+
+    /**
+     * First four bytes of every snapshot file, "WLGS"
+     */
+    public static final int MAGIC = 0x574C4753;
+
+    /**
+     * Version of the file format written by {@link #write(Graph, Path)}
+     */
+    public static final int VERSION = 1;
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /**
+     * Writes a graph to a file
+     *
+     * @param graph graph to write
+     * @param file file to write
+     * @throws IOException if the file can not be written
+     */
+    public static void write(Graph<String> graph, Path file) throws IOException {
+        CsrGraph<String> csr = graph.freeze();
+        int n = csr.size();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putVarint(n);
+            for (int v = 0; v < n; v++) {
+                byte[] word = csr.vertex(v).getBytes(StandardCharsets.UTF_8);
+                out.putVarint(word.length);
+                out.putBytes(word);
+            }
+            for (int v = 0; v < n; v++) {
+                out.putVarint(csr.degree(v));
+                int previous = v;
+                for (int e = csr.edgeStart(v), end = csr.edgeEnd(v); e < end; e++) {
+                    int gap = csr.edgeTarget(e) - previous;
+                    out.putVarint(gap << 1 ^ gap >> 31); //zigzag
+                    previous = csr.edgeTarget(e);
+                }
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Reads a graph written by {@link #write(Graph, Path)}
+     *
+     * @param file file to read
+     * @return graph with the same words, edges and neighbor order as the one written
+     * @throws IOException if the file can not be read or is not a snapshot of a supported version
+     */
+    public static Graph<String> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+            if (in.getInt() != MAGIC) {
+                throw new IOException("not a graph snapshot file: " + file);
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported graph snapshot version " + version + ": " + file);
+            }
+            int n = in.getVarint();
+            String[] words = new String[n];
+            Graph<String> graph = new Graph<>();
+            for (int v = 0; v < n; v++) {
+                words[v] = new String(in.getBytes(in.getVarint()), StandardCharsets.UTF_8);
+                if (graph.addVertex(words[v]) == null) {
+                    throw new IOException("graph snapshot repeats a word: " + words[v]);
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                int degree = in.getVarint();
+                int previous = v;
+                for (int slot = 0; slot < degree; slot++) {
+                    int zigzag = in.getVarint();
+                    int neighbor = previous + (zigzag >>> 1 ^ -(zigzag & 1));
+                    if (neighbor < 0 || neighbor >= n || neighbor == v || !graph.appendHalfEdge(words[v], words[neighbor])) {
+                        throw new IOException("graph snapshot is corrupt at word " + words[v] + ": " + file);
+                    }
+                    previous = neighbor;
+                }
+            }
+            return graph;
+        }
+    }
+
+    /*
+     * buffered writes to a channel
+     */
+    private static class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putVarint(int value) throws IOException {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) (value & 0x7F | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+                return;
+            }
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        /*
+         * flushes the buffer unless it has room for count more bytes
+         */
+        private void ensure(int count) throws IOException {
+            if (buffer.remaining() < count) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /*
+     * buffered reads from a channel
+     */
+    private static class Input {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+        Input(FileChannel channel) {
+            this.channel = channel;
+            buffer.limit(0);
+        }
+
+        int getInt() throws IOException {
+            ensure(4);
+            return buffer.getInt();
+        }
+
+        int getVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                ensure(1);
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("graph snapshot has a malformed varint");
+        }
+
+        byte[] getBytes(int length) throws IOException {
+            byte[] bytes = new byte[length];
+            for (int read = 0; read < length; ) {
+                ensure(1);
+                int count = Math.min(length - read, buffer.remaining());
+                buffer.get(bytes, read, count);
+                read += count;
+            }
+            return bytes;
+        }
+
+        /*
+         * refills the buffer until it holds at least count bytes
+         */
+        private void ensure(int count) throws IOException {
+            if (buffer.remaining() >= count) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < count) {
+                if (channel.read(buffer) == -1) {
+                    throw new IOException("graph snapshot is truncated");
+                }
+            }
+            buffer.flip();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 import static org.junit.Assert.assertEquals;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.After;
@@ -333,4 +334,138 @@ public class GraphTest {
 		assertEquals("num of vertices in the graph", numOfVertices-2, verticesCount);
 	}
 
+	@Test
+	public final void forEachNeighborVisitsSameNeighborsAsGetNeighbors() {
+		// setup the graph by adding a few vertices and edges
+		Graph<String> graph = new Graph<>();
+		for (String itrVertex : vertices)
+			graph.addVertex(itrVertex);
+		graph.addEdge(vertices.get(0), vertices.get(1));
+		graph.addEdge(vertices.get(0), vertices.get(2));
+		graph.addEdge(vertices.get(3), vertices.get(0));
+		graph.removeEdge(vertices.get(0), vertices.get(2));
+		
+		for (String itrVertex : graph.getAllVertices()) {
+			List<String> expected = new ArrayList<>();
+			for (String itrNeighbor : graph.getNeighbors(itrVertex))
+				expected.add(itrNeighbor);
+			List<String> actual = new ArrayList<>();
+			assertEquals(String.format("return value for existing vertex=%s", itrVertex), 
+					true, graph.forEachNeighbor(itrVertex, actual::add));
+			assertEquals(String.format("neighbors of vertex=%s", itrVertex), expected, actual);
+			assertEquals(String.format("degree of vertex=%s", itrVertex), expected.size(), graph.degree(itrVertex));
+		}
+		assertEquals("return value if vertex doesn't exist", 
+				false, graph.forEachNeighbor("not a vertex", itrNeighbor -> {}));
+	}
+
+	@Test
+	public final void freezeMatchesNeighborsAndIsSymmetric() {
+		Graph<String> graph = new Graph<>();
+		for (String itrVertex : vertices)
+			graph.addVertex(itrVertex);
+		graph.addEdge("cat", "hat");
+		graph.addEdge("cat", "rat");
+		graph.addEdge("hat", "hot");
+		graph.addEdge("hat", "heat");
+		graph.addEdge("heat", "neat");
+		graph.addEdge("heat", "wheat");
+		
+		assertSnapshotMatches(graph, graph.freeze());
+	}
+
+	@Test
+	public final void freezeAfterRemovalsKeepsIdsAndIsSymmetric() {
+		Graph<String> graph = new Graph<>();
+		for (String itrVertex : vertices)
+			graph.addVertex(itrVertex);
+		graph.addEdge("cat", "hat");
+		graph.addEdge("cat", "rat");
+		graph.addEdge("hat", "hot");
+		graph.addEdge("hat", "heat");
+		graph.addEdge("heat", "neat");
+		graph.addEdge("heat", "wheat");
+		VertexIndex<String> ids = new VertexIndex<>(graph.getAllVertices());
+		
+		// removing an edge moves the last neighbor into its slot, removing a vertex leaves its id unused
+		graph.removeEdge("hat", "cat");
+		graph.removeVertex("heat");
+		CsrGraph<String> snapshot = graph.freeze(ids);
+		assertSnapshotMatches(graph, snapshot);
+		assertEquals("ids including the unused one", vertices.size(), snapshot.size());
+		assertEquals("vertices", vertices.size() - 1, snapshot.vertexCount());
+		assertEquals("unused id of removed vertex", null, snapshot.vertex(ids.idOf("heat")));
+		assertEquals("degree of unused id", 0, snapshot.degree(ids.idOf("heat")));
+		for (String itrVertex : graph.getAllVertices())
+			assertEquals(String.format("id of vertex=%s", itrVertex), ids.idOf(itrVertex), snapshot.idOf(itrVertex));
+		assertEquals("edges", 2, snapshot.edgeCount());
+	}
+
+	@Test
+	public final void freezeFromPreviousSnapshotMatchesFullFreeze() {
+		Graph<String> graph = new Graph<>();
+		for (String itrVertex : vertices)
+			graph.addVertex(itrVertex);
+		graph.addEdge("at", "it");
+		graph.addEdge("cat", "hat");
+		graph.addEdge("cat", "rat");
+		graph.addEdge("hat", "hot");
+		graph.addEdge("hat", "heat");
+		graph.addEdge("rat", "hat");
+		graph.addEdge("heat", "neat");
+		graph.addEdge("heat", "wheat");
+		VertexIndex<String> ids = new VertexIndex<>(graph.getAllVertices());
+		CsrGraph<String> previous = graph.freeze(ids);
+		
+		// only the rows of changed vertices are read again, the first and last rows are copied
+		graph.removeEdge("cat", "hat");
+		graph.removeVertex("heat");
+		CsrGraph<String> patched = graph.freeze(previous, 
+				Arrays.asList("cat", "hat", "heat", "hat", "neat", "wheat"));
+		CsrGraph<String> full = graph.freeze(ids);
+		assertSnapshotMatches(graph, patched);
+		assertEquals("ids", full.size(), patched.size());
+		assertEquals("vertices", full.vertexCount(), patched.vertexCount());
+		for (int id = 0; id < full.size(); id++) {
+			assertEquals(String.format("vertex of id=%d", id), full.vertex(id), patched.vertex(id));
+			assertEquals(String.format("start of id=%d", id), full.edgeStart(id), patched.edgeStart(id));
+			assertEquals(String.format("end of id=%d", id), full.edgeEnd(id), patched.edgeEnd(id));
+		}
+		for (int e = 0; e < 2 * full.edgeCount(); e++)
+			assertEquals(String.format("neighbor at=%d", e), full.edgeTarget(e), patched.edgeTarget(e));
+		assertEquals("previous snapshot unchanged", "heat", previous.vertex(ids.idOf("heat")));
+	}
+
+	/*
+	 * checks offsets, degrees and neighbor order of every vertex against the graph, and that every edge is stored both ways
+	 */
+	private static void assertSnapshotMatches(Graph<String> graph, CsrGraph<String> snapshot) {
+		// neighbors of consecutive ids are back to back
+		assertEquals("offset of first id", 0, snapshot.edgeStart(0));
+		for (int id = 1; id < snapshot.size(); id++)
+			assertEquals(String.format("offset of id=%d", id), snapshot.edgeEnd(id - 1), snapshot.edgeStart(id));
+		assertEquals("offset after last id", 2 * snapshot.edgeCount(), snapshot.edgeEnd(snapshot.size() - 1));
+		int edges = 0;
+		for (String itrVertex : graph.getAllVertices()) {
+			int v = snapshot.idOf(itrVertex);
+			assertEquals(String.format("vertex of id of vertex=%s", itrVertex), itrVertex, snapshot.vertex(v));
+			assertEquals(String.format("degree of vertex=%s", itrVertex), graph.degree(itrVertex), snapshot.degree(v));
+			List<String> expected = new ArrayList<>();
+			for (String itrNeighbor : graph.getNeighbors(itrVertex))
+				expected.add(itrNeighbor);
+			List<String> actual = new ArrayList<>();
+			for (int slot = 0; slot < snapshot.degree(v); slot++) {
+				int w = snapshot.neighbor(v, slot);
+				actual.add(snapshot.vertex(w));
+				boolean back = false;
+				for (int s = 0; s < snapshot.degree(w); s++)
+					back |= snapshot.neighbor(w, s) == v;
+				assertEquals(String.format("edge back from %s to vertex=%s", snapshot.vertex(w), itrVertex), true, back);
+			}
+			assertEquals(String.format("neighbors of vertex=%s", itrVertex), expected, actual);
+			edges += expected.size();
+		}
+		assertEquals("edges", edges / 2, snapshot.edgeCount());
+	}
+
 }
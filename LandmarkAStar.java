@@ -0,0 +1,202 @@
+import java.util.Arrays;
+
+/**
+ * Shortest path engine that answers every query with an A* search guided by landmarks (ALT), a middle ground
+ * between a table over every pair and searching blindly.
+ *
+ * A few landmark vertices are picked up front and the distance from each of them to every vertex is stored,
+ * one row of n values per landmark packed into as few bytes as the longest distance needs. By the triangle inequality,
+ * |d(L, v) - d(L, t)| is never more than d(v, t) for any landmark L, so the largest such difference is a lower
+ * bound that steers the search towards t. The bound is consistent, so every vertex is expanded at most once.
+ * A vertex reached by a landmark that does not reach t is in another component and is never expanded.
+ *
+ * Landmarks are picked farthest first: each one is the vertex furthest from the landmarks picked before it,
+ * and a vertex no landmark reaches yet counts as being as far away as its component is large. The first landmark
+ * is the highest degree vertex of the largest component, and later ones spread out to its edges and into other
+ * components, where their bounds are tightest.
+ *
+ * Search state lives in {@link AStarBuffers} that each thread reuses across queries, so a query only allocates its result.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class LandmarkAStar implements ShortestPathEngine {
+    private final CsrGraph<?> graph;
+    private final int[] landmarks; //ids of the landmarks
+    private final PackedRows table; //row i holds the distance from landmark i to every vertex, empty if not reachable
+    private final ThreadLocal<Buffers> buffers;
+
+    private LandmarkAStar(CsrGraph<?> graph, int[] landmarks, PackedRows table) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.table = table;
+        this.buffers = ThreadLocal.withInitial(() -> new Buffers(graph.size(), landmarks.length));
+    }
+
+    /**
+     * Picks landmarks and stores the distance from each of them to every vertex
+     *
+     * @param graph graph to search
+     * @param components components of graph
+     * @param k number of landmarks, fewer are picked if there are not enough vertices with edges
+     * @return engine searching graph with k landmarks
+     */
+    public static LandmarkAStar build(CsrGraph<?> graph, ComponentIndex components, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("need at least one landmark: " + k);
+        }
+        int n = graph.size();
+        int[] nearest = new int[n]; //distance to the nearest landmark so far
+        Arrays.fill(nearest, UNREACHABLE);
+        //no distance in a component is longer than its number of vertices
+        PackedRows table = new PackedRows(k, PackedRows.widthFor(Math.max(0, components.largestComponentSize() - 1)));
+        int[] landmarks = new int[k];
+        int count = 0;
+        while (count < k) {
+            int landmark = farthest(graph, components, nearest);
+            if (landmark == -1) {
+                break;
+            }
+            //each tree goes into its row right away, so only one is held at a time
+            ShortestPathTree tree = ShortestPathTree.search(graph, landmark);
+            table.allocateRow(count, n);
+            for (int v = 0; v < n; v++) {
+                int d = tree.distance(v);
+                if (d != UNREACHABLE) {
+                    table.set(count, v, d);
+                    nearest[v] = Math.min(nearest[v], d);
+                }
+            }
+            landmarks[count++] = landmark;
+        }
+        return new LandmarkAStar(graph, Arrays.copyOf(landmarks, count), table);
+    }
+
+    /*
+     * vertex furthest from every landmark, highest degree first among equals
+     * @return id of the vertex, -1 if every vertex with edges is a landmark
+     */
+    private static int farthest(CsrGraph<?> graph, ComponentIndex components, int[] nearest) {
+        int best = -1;
+        int bestScore = 0;
+        for (int v = 0; v < graph.size(); v++) {
+            if (graph.degree(v) == 0) { //isolated vertices and unused ids bound nothing
+                continue;
+            }
+            int score = nearest[v] != UNREACHABLE ? nearest[v] : components.componentSize(components.componentOf(v)) - 1;
+            if (score > bestScore || score == bestScore && best != -1 && graph.degree(v) > graph.degree(best)) {
+                best = v;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public int distance(int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        Buffers b = buffers.get();
+        return search(b, from, to) ? b.distance[to] : UNREACHABLE;
+    }
+
+    @Override
+    public int[] path(int from, int to) {
+        if (from == to) {
+            return new int[] {from};
+        }
+        Buffers b = buffers.get();
+        if (!search(b, from, to)) {
+            return null;
+        }
+        return b.pathTo(to);
+    }
+
+    /**
+     * @return ids of the landmarks, in the order they were picked
+     */
+    public int[] landmarks() {
+        return landmarks.clone();
+    }
+
+    /*
+     * lower bound of the distance from v to the target whose landmark distances are in the buffers,
+     * UNREACHABLE if a landmark shows they are not connected
+     */
+    private int lowerBound(Buffers b, int v) {
+        int k = landmarks.length;
+        int bound = 0;
+        for (int i = 0; i < k; i++) {
+            int dv = table.get(i, v);
+            int dt = b.target[i];
+            if (dv == -1 || dt == -1) {
+                if (dv != dt) {
+                    return UNREACHABLE;
+                }
+            } else {
+                bound = Math.max(bound, Math.abs(dv - dt));
+            }
+        }
+        return bound;
+    }
+
+    /*
+     * runs the search, leaving distances and parents of the expanded vertices in the buffers
+     *
+     * @return true if from and to are connected
+     */
+    private boolean search(Buffers b, int from, int to) {
+        b.nextGeneration();
+        int k = landmarks.length;
+        for (int i = 0; i < k; i++) {
+            b.target[i] = table.get(i, to);
+        }
+        int bound = lowerBound(b, from);
+        if (bound == UNREACHABLE) {
+            return false;
+        }
+        b.reach(from, 0, -1);
+        b.push(bound, from);
+
+        while (!b.isEmpty()) {
+            int u = b.pop();
+            if (b.closed[u] == b.generation) {
+                continue; //an older entry, u was already expanded through a shorter path
+            }
+            b.closed[u] = b.generation;
+            if (u == to) {
+                return true;
+            }
+            int g = b.distance[u] + 1;
+            for (int e = graph.edgeStart(u), end = graph.edgeEnd(u); e < end; e++) {
+                int v = graph.edgeTarget(e);
+                if (b.seen[v] != b.generation) {
+                    b.reach(v, g, u);
+                    b.bound[v] = lowerBound(b, v);
+                } else if (g < b.distance[v]) {
+                    b.distance[v] = g;
+                    b.parent[v] = u;
+                } else {
+                    continue;
+                }
+                if (b.bound[v] != UNREACHABLE) {
+                    b.push(g + b.bound[v], v);
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+     * search state of one thread, with the landmark distances of the current target
+     */
+    private static class Buffers extends AStarBuffers {
+        final int[] target; //distance from every landmark to the target
+
+        Buffers(int n, int k) {
+            super(n);
+            target = new int[k];
+        }
+    }
+}
@@ -0,0 +1,360 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * Shortest path engine reading the paths of a {@link CompactPathStore} saved to a file, so a new process can
+ * answer queries without building the graph or searching it again.
+ *
+ * The file is memory mapped {@link FileChannel#map(FileChannel.MapMode, long, long)} rather than read, so
+ * loading only decodes the vertex table and the graph, and the distance and next hop tables are paged in
+ * by the queries that touch them. Processes mapping the same file share one copy in the page cache.
+ *
+ * File format, big endian, version 1:
+ *  - header: magic "WLPI", version, vertex id count n, neighbor count m, distance width, next hop width,
+ *    vertex table byte length (long)
+ *  - vertex table: for every id, byte length and UTF-8 bytes of the vertex, -1 and no bytes for unused ids
+ *  - graph: n + 1 neighbor offsets followed by m neighbor ids {@link CsrGraph}
+ *  - distances: lower triangle rows, row i holds the distances to ids 0 to i - 1
+ *  - next hops: n rows of n neighbor slots
+ * Distances and next hops use the packed layout of {@link PackedRows}, all ones marks an empty entry.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class MappedPathIndex implements ShortestPathEngine {
+
+    /**
+     * First four bytes of every index file, "WLPI"
+     */
+    public static final int MAGIC = 0x574C5049;
+
+    /**
+     * Version of the file format written by {@link #save(CompactPathStore, CsrGraph, Path)}
+     */
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 6 * 4 + 8;
+    private static final int CHUNK_BYTES = 1 << 30; //rows are mapped in chunks of at most this size
+
+    private final CsrGraph<String> graph;
+    private final MappedRows distances;
+    private final MappedRows nextHops;
+
+    private MappedPathIndex(CsrGraph<String> graph, MappedRows distances, MappedRows nextHops) {
+        this.graph = graph;
+        this.distances = distances;
+        this.nextHops = nextHops;
+    }
+
+    /**
+     * Writes the paths of a store to a file. The file is written next to its destination and then
+     * moved in place, so processes that mapped an older version keep reading a complete file.
+     *
+     * @param store paths to save
+     * @param graph graph the store was built on
+     * @param file file to write
+     * @throws IOException if the file can not be written
+     */
+    public static void save(CompactPathStore store, CsrGraph<String> graph, Path file) throws IOException {
+        int n = graph.size();
+        if (store.size() != n) {
+            throw new IllegalArgumentException("store has " + store.size() + " vertices, graph has " + n);
+        }
+        PackedRows distanceRows = store.distances();
+        PackedRows hopRows = store.nextHops();
+        write(graph, distanceRows.width(), hopRows.width(), out -> {
+            for (int v = 0; v < n; v++) {
+                distanceRows.writeRow(v, v, out);
+            }
+            for (int v = 0; v < n; v++) {
+                hopRows.writeRow(v, n, out);
+            }
+        }, file);
+    }
+
+    /**
+     * Writes this index to a file, the same way {@link #save(CompactPathStore, CsrGraph, Path)} wrote the file
+     * it was loaded from. The rows are copied from the mapped chunks, so nothing is decoded or searched.
+     *
+     * @param file file to write, may be the file this index was loaded from
+     * @throws IOException if the file can not be written
+     */
+    public void save(Path file) throws IOException {
+        write(graph, distances.width, nextHops.width, out -> {
+            distances.writeTo(out);
+            nextHops.writeTo(out);
+        }, file);
+    }
+
+    /*
+     * writes the header, vertex table and graph followed by the rows to a temporary file next to file,
+     * then moves it in place
+     */
+    private static void write(CsrGraph<String> graph, int distanceWidth, int hopWidth, RowWriter rows, Path file) throws IOException {
+        int n = graph.size();
+        int m = n == 0 ? 0 : graph.edgeEnd(n - 1); //neighbor entries, two per edge
+        byte[][] words = new byte[n][];
+        long tableBytes = 0;
+        for (int v = 0; v < n; v++) {
+            words[v] = graph.vertex(v) == null ? null : graph.vertex(v).getBytes(StandardCharsets.UTF_8);
+            tableBytes += 4 + (words[v] == null ? 0 : words[v].length);
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(m);
+            out.writeInt(distanceWidth);
+            out.writeInt(hopWidth);
+            out.writeLong(tableBytes);
+            for (byte[] word : words) {
+                out.writeInt(word == null ? -1 : word.length);
+                if (word != null) {
+                    out.write(word);
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                out.writeInt(graph.edgeStart(v));
+            }
+            out.writeInt(m);
+            for (int e = 0; e < m; e++) {
+                out.writeInt(graph.edgeTarget(e));
+            }
+            rows.write(out);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps a file written by {@link #save(CompactPathStore, CsrGraph, Path)}
+     *
+     * @param file file to map
+     * @return index answering queries from the file
+     * @throws IOException if the file can not be read or is not an index of a supported version
+     */
+    public static MappedPathIndex load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("not a path index file: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("not a path index file: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported path index version " + version + ": " + file);
+            }
+            int n = header.getInt();
+            int m = header.getInt();
+            int distanceWidth = header.getInt();
+            int hopWidth = header.getInt();
+            long tableBytes = header.getLong();
+
+            long position = HEADER_BYTES;
+            ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, position, tableBytes);
+            VertexIndex<String> ids = new VertexIndex<>();
+            for (int v = 0; v < n; v++) {
+                int length = table.getInt();
+                if (length == -1) {
+                    ids.reserve();
+                } else {
+                    byte[] word = new byte[length];
+                    table.get(word);
+                    ids.add(new String(word, StandardCharsets.UTF_8));
+                }
+            }
+            position += tableBytes;
+
+            int[] offsets = new int[n + 1];
+            channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * (n + 1)).asIntBuffer().get(offsets);
+            position += 4L * (n + 1);
+            int[] neighbors = new int[m];
+            channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * m).asIntBuffer().get(neighbors);
+            position += 4L * m;
+
+            MappedRows distances = new MappedRows(channel, position, n, distanceWidth, true);
+            position += (long) n * (n - 1) / 2 * distanceWidth;
+            MappedRows nextHops = new MappedRows(channel, position, n, hopWidth, false);
+            position += (long) n * n * hopWidth;
+            if (position != channel.size()) {
+                throw new IOException("path index file is truncated or corrupt: " + file);
+            }
+            //mappings stay valid after the channel is closed
+            return new MappedPathIndex(new CsrGraph<>(ids, offsets, neighbors), distances, nextHops);
+        }
+    }
+
+    /**
+     * @param filepath file to map
+     * @return index answering queries from the file
+     * @throws IOException if the file can not be read or is not an index of a supported version
+     */
+    public static MappedPathIndex load(String filepath) throws IOException {
+        return load(Paths.get(filepath));
+    }
+
+    /**
+     * @return graph saved with the paths, its ids are the ids of the queries
+     */
+    public CsrGraph<String> graph() {
+        return graph;
+    }
+
+    @Override
+    public int distance(int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        int d = from > to ? distances.get(from, to) : distances.get(to, from);
+        return d == -1 ? UNREACHABLE : d;
+    }
+
+    /**
+     * @param from id of the vertex the path leaves from
+     * @param to id of the vertex the path goes to
+     * @return id of the vertex after from on the shortest path, -1 if from equals to or there is no path
+     */
+    public int nextHop(int from, int to) {
+        int slot = nextHops.get(from, to);
+        return slot == -1 ? -1 : graph.neighbor(from, slot);
+    }
+
+    /**
+     * Follows next hops from the vertex with the higher id, as {@link CompactPathStore#path(int, int)} does
+     */
+    @Override
+    public int[] path(int from, int to) {
+        boolean reverse = from < to;
+        int start = reverse ? to : from;
+        int end = reverse ? from : to;
+        int d = distance(start, end);
+        if (d == UNREACHABLE) {
+            return null;
+        }
+        int[] path = new int[d + 1];
+        path[0] = start;
+        for (int i = 1; i <= d; i++) {
+            path[i] = nextHop(path[i - 1], end);
+        }
+        if (reverse) {
+            for (int i = 0, j = d; i < j; i++, j--) {
+                int temp = path[i];
+                path[i] = path[j];
+                path[j] = temp;
+            }
+        }
+        return path;
+    }
+
+    @Override
+    public boolean answersDirectly() {
+        return true;
+    }
+
+    /**
+     * @return number of vertex ids in the index
+     */
+    public int size() {
+        return graph.size();
+    }
+
+    /*
+     * writes the distance and next hop rows of an index
+     */
+    private interface RowWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /*
+     * read only rows of packed values in a mapped file, each row lies within one mapped chunk
+     */
+    private static class MappedRows {
+        private final int width;
+        private final int empty;
+        private final MappedByteBuffer[] chunks;
+        private final int[] rowChunk; //chunk holding each row
+        private final int[] rowStart; //byte position of each row in its chunk
+        private final int[] rowLength; //values in each row
+
+        /*
+         * @param   triangular  row i holds i values if true, rowCount values otherwise
+         */
+        MappedRows(FileChannel channel, long position, int rowCount, int width, boolean triangular) throws IOException {
+            this.width = width;
+            this.empty = width == 4 ? -1 : (1 << (8 * width)) - 1;
+            rowChunk = new int[rowCount];
+            rowStart = new int[rowCount];
+            rowLength = new int[rowCount];
+            ArrayList<MappedByteBuffer> mapped = new ArrayList<>();
+            long chunkStart = position;
+            long chunkBytes = 0;
+            for (int row = 0; row < rowCount; row++) {
+                rowLength[row] = triangular ? row : rowCount;
+                long rowBytes = (long) rowLength[row] * width;
+                if (chunkBytes + rowBytes > CHUNK_BYTES) {
+                    mapped.add(channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkBytes));
+                    chunkStart += chunkBytes;
+                    chunkBytes = 0;
+                }
+                rowChunk[row] = mapped.size();
+                rowStart[row] = (int) chunkBytes;
+                chunkBytes += rowBytes;
+            }
+            mapped.add(channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkBytes));
+            chunks = mapped.toArray(new MappedByteBuffer[0]);
+        }
+
+        /*
+         * writes every row, back to back as they are in the file
+         */
+        void writeTo(DataOutputStream out) throws IOException {
+            byte[] buffer = new byte[1 << 16];
+            for (MappedByteBuffer chunk : chunks) {
+                ByteBuffer bytes = chunk.duplicate(); //queries read the chunk concurrently, its position is left alone
+                bytes.position(0);
+                while (bytes.hasRemaining()) {
+                    int length = Math.min(buffer.length, bytes.remaining());
+                    bytes.get(buffer, 0, length);
+                    out.write(buffer, 0, length);
+                }
+            }
+        }
+
+        /*
+         * value at row and col, -1 if the entry is empty
+         */
+        int get(int row, int col) {
+            if (col >= rowLength[row]) {
+                return -1;
+            }
+            ByteBuffer chunk = chunks[rowChunk[row]];
+            int i = rowStart[row] + col * width;
+            int value;
+            switch (width) {
+                case 1:
+                    value = chunk.get(i) & 0xFF;
+                    break;
+                case 2:
+                    value = chunk.getShort(i) & 0xFFFF;
+                    break;
+                default:
+                    value = chunk.getInt(i);
+            }
+            return value == empty ? -1 : value;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the words of a dictionary file by scanning the bytes of a memory mapped copy of it,
+ * giving the same words in the same order as {@link WordProcessor#getWordStream(String)}.
+ *
+ * Lines end at '\n' or '\r'. Each line is trimmed of bytes up to ' ' and, if it is ASCII, copied into a
+ * reused buffer while being uppercased, so every word costs only its String. Lines with other UTF-8
+ * characters are decoded and uppercased as Strings, as are all lines if the default locale does not
+ * uppercase ASCII letters the usual way.
+ *
+ * The file is mapped in segments of up to 1 GiB that end on a line break. A parallel stream splits
+ * the segments, and then each segment at line breaks, so every core scans its own part of the file.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class MappedWordReader {
+    private static final int SEGMENT_BYTES = 1 << 30;
+    private static final int MIN_SPLIT_BYTES = 1 << 16; //parts smaller than this are not split further
+
+    /**
+     * Streams the words of a file
+     *
+     * @param file dictionary file, one word per line
+     * @param parallel true for a parallel stream
+     * @return stream of trimmed, non-empty and uppercase words in file order
+     * @throws IOException if the file can not be mapped
+     */
+    public static Stream<String> words(Path file, boolean parallel) throws IOException {
+        ArrayList<MappedByteBuffer> segments = new ArrayList<>();
+        ArrayList<Integer> lengths = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long start = 0; start < size; ) {
+                long mapped = Math.min(SEGMENT_BYTES, size - start);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, start, mapped);
+                int length = (int) mapped;
+                if (start + mapped < size) { //end this segment after its last line break, the next one maps the rest again
+                    while (length > 0 && !isLineBreak(segment.get(length - 1))) {
+                        length--;
+                    }
+                    if (length == 0) {
+                        throw new IOException("line longer than " + SEGMENT_BYTES + " bytes in " + file);
+                    }
+                }
+                segments.add(segment);
+                lengths.add(length);
+                start += length;
+            }
+        }
+        //mappings stay valid after the channel is closed
+        boolean asciiUpperCase = "abcdefghijklmnopqrstuvwxyz".toUpperCase().equals("ABCDEFGHIJKLMNOPQRSTUVWXYZ");
+        int[] ends = new int[lengths.size()];
+        for (int i = 0; i < ends.length; i++) {
+            ends[i] = lengths.get(i);
+        }
+        MappedByteBuffer[] buffers = segments.toArray(new MappedByteBuffer[0]);
+        int last = buffers.length - 1;
+        return StreamSupport.stream(new WordSpliterator(buffers, ends, 0, 0, last, last < 0 ? 0 : ends[last], asciiUpperCase), parallel);
+    }
+
+    private static boolean isLineBreak(byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+    /*
+     * words of the lines from (segment, position) up to (lastSegment, lastEnd), every earlier segment is read to its end
+     */
+    private static class WordSpliterator implements Spliterator<String> {
+        private final MappedByteBuffer[] segments;
+        private final int[] ends; //bytes of each segment that belong to it
+        private final boolean asciiUpperCase;
+        private int segment;
+        private int position;
+        private final int lastSegment;
+        private final int lastEnd;
+        private byte[] scratch = new byte[64]; //line being uppercased, reused for every word
+
+        WordSpliterator(MappedByteBuffer[] segments, int[] ends, int segment, int position, int lastSegment, int lastEnd,
+                boolean asciiUpperCase) {
+            this.segments = segments;
+            this.ends = ends;
+            this.segment = segment;
+            this.position = position;
+            this.lastSegment = lastSegment;
+            this.lastEnd = lastEnd;
+            this.asciiUpperCase = asciiUpperCase;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            while (segment <= lastSegment) {
+                MappedByteBuffer bytes = segments[segment];
+                int end = segment == lastSegment ? lastEnd : ends[segment];
+                while (position < end) {
+                    int lineEnd = position;
+                    while (lineEnd < end && !isLineBreak(bytes.get(lineEnd))) {
+                        lineEnd++;
+                    }
+                    String word = word(bytes, position, lineEnd);
+                    position = lineEnd + 1;
+                    if (word != null) {
+                        action.accept(word);
+                        return true;
+                    }
+                }
+                segment++;
+                position = 0;
+            }
+            return false;
+        }
+
+        /*
+         * trimmed and uppercased word of the bytes from start up to end, null if the line is blank
+         */
+        private String word(MappedByteBuffer bytes, int start, int end) {
+            while (start < end && (bytes.get(start) & 0xFF) <= ' ') {
+                start++;
+            }
+            while (end > start && (bytes.get(end - 1) & 0xFF) <= ' ') {
+                end--;
+            }
+            if (start == end) {
+                return null;
+            }
+            int length = end - start;
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, 2 * scratch.length)];
+            }
+            boolean ascii = asciiUpperCase;
+            for (int i = 0; i < length; i++) {
+                byte b = bytes.get(start + i);
+                ascii &= b >= 0;
+                scratch[i] = b >= 'a' && b <= 'z' ? (byte) (b - ('a' - 'A')) : b;
+            }
+            if (ascii) {
+                return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+            }
+            //not plain ASCII, decode the original bytes and let String handle the case mapping
+            for (int i = 0; i < length; i++) {
+                scratch[i] = bytes.get(start + i);
+            }
+            return new String(scratch, 0, length, StandardCharsets.UTF_8).trim().toUpperCase();
+        }
+
+        @Override
+        public Spliterator<String> trySplit() {
+            if (segment < lastSegment) { //hand the first half of the segments to the new part
+                int mid = segment + (lastSegment - segment + 1) / 2;
+                WordSpliterator prefix = new WordSpliterator(segments, ends, segment, position, mid - 1, ends[mid - 1], asciiUpperCase);
+                segment = mid;
+                position = 0;
+                return prefix;
+            }
+            if (segment > lastSegment || lastEnd - position < MIN_SPLIT_BYTES) {
+                return null;
+            }
+            int end = lastEnd;
+            //split after the first line break past the middle, so no line is cut in two
+            MappedByteBuffer bytes = segments[segment];
+            int split = position + (end - position) / 2;
+            while (split < end && !isLineBreak(bytes.get(split))) {
+                split++;
+            }
+            if (split >= end - 1) {
+                return null;
+            }
+            WordSpliterator prefix = new WordSpliterator(segments, ends, segment, position, segment, split + 1, asciiUpperCase);
+            position = split + 1;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            long bytes = 0;
+            for (int s = segment; s <= lastSegment; s++) {
+                bytes += (s == lastSegment ? lastEnd : ends[s]) - (s == segment ? position : 0);
+            }
+            return bytes / 8; //rough number of words, assuming short lines
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Rows of small unsigned ints packed into byte arrays, using 1, 2 or 4 bytes per value.
+ * The all-ones value of the width is reserved to mark an empty entry, which reads back as -1.
+ *
+ * Each row is its own array, so a table with more than Integer.MAX_VALUE entries can still be
+ * stored, and different rows can be written from different threads.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class PackedRows {
+    private final int width; //bytes per value
+    private final int empty; //reserved value marking an empty entry
+    private final byte[][] rows;
+
+    /*
+     * @param   rowCount    number of rows
+     * @param   width       bytes per value, 1, 2 or 4
+     */
+    public PackedRows(int rowCount, int width) {
+        if (width != 1 && width != 2 && width != 4) {
+            throw new IllegalArgumentException("width must be 1, 2 or 4 bytes: " + width);
+        }
+        this.width = width;
+        this.empty = width == 4 ? -1 : (1 << (8 * width)) - 1;
+        this.rows = new byte[rowCount][];
+    }
+
+    /*
+     * copy of base that shares its row arrays, with room for rowCount rows.
+     * rows are only changed in place past the length base uses them for, anything else is
+     * copied first {@link #copyRow(int, int)}, so base keeps reading its own values.
+     * 
+     * @param   base        rows to share
+     * @param   rowCount    number of rows, at least that of base
+     */
+    public PackedRows(PackedRows base, int rowCount) {
+        this.width = base.width;
+        this.empty = base.empty;
+        this.rows = Arrays.copyOf(base.rows, rowCount);
+    }
+
+    /**
+     * Smallest width that can store every value from 0 to maxValue besides the empty marker
+     *
+     * @param maxValue largest value that will be stored
+     * @return width in bytes
+     */
+    public static int widthFor(int maxValue) {
+        if (maxValue < 0xFF) {
+            return 1;
+        }
+        if (maxValue < 0xFFFF) {
+            return 2;
+        }
+        return 4;
+    }
+
+    /**
+     * Allocates a row with all of its entries empty
+     *
+     * @param row index of the row
+     * @param length number of values in the row
+     */
+    public void allocateRow(int row, int length) {
+        byte[] bytes = new byte[length * width];
+        Arrays.fill(bytes, (byte) 0xFF);
+        rows[row] = bytes;
+    }
+
+    /**
+     * Replaces a row with a private copy that holds at least length values, new entries are empty
+     *
+     * @param row index of the row
+     * @param length number of values the row must hold
+     */
+    public void copyRow(int row, int length) {
+        rows[row] = resized(rows[row], Math.max(rows[row].length / width, length));
+    }
+
+    /**
+     * Makes sure a row holds at least length values, growing it with some spare room if it does not.
+     * Entries already in the row are kept, new entries are empty
+     *
+     * @param row index of the row
+     * @param length number of values the row must hold
+     */
+    public void ensureRowLength(int row, int length) {
+        if (rows[row].length < length * width) {
+            rows[row] = resized(rows[row], length + length / 8); //room for a few more appends before copying again
+        }
+    }
+
+    /**
+     * @param row index of the row
+     * @return number of values the row can hold
+     */
+    public int rowLength(int row) {
+        return rows[row].length / width;
+    }
+
+    /**
+     * @param row index of the row
+     * @param col index of the value in the row
+     * @return value stored at row and col, -1 if the entry is empty or past the end of the row
+     */
+    public int get(int row, int col) {
+        byte[] bytes = rows[row];
+        if (col * width >= bytes.length) { //rows are only grown once something is stored past their end
+            return -1;
+        }
+        int value;
+        switch (width) {
+            case 1:
+                value = bytes[col] & 0xFF;
+                break;
+            case 2:
+                value = (bytes[2 * col] & 0xFF) << 8 | (bytes[2 * col + 1] & 0xFF);
+                break;
+            default:
+                int i = 4 * col;
+                value = (bytes[i] & 0xFF) << 24 | (bytes[i + 1] & 0xFF) << 16 | (bytes[i + 2] & 0xFF) << 8 | (bytes[i + 3] & 0xFF);
+        }
+        return value == empty ? -1 : value;
+    }
+
+    /**
+     * Stores a value, -1 empties the entry
+     *
+     * @param row index of the row
+     * @param col index of the value in the row
+     * @param value value to store, must fit in the width
+     */
+    public void set(int row, int col, int value) {
+        if (value == -1) {
+            value = empty;
+        }
+        byte[] bytes = rows[row];
+        switch (width) {
+            case 1:
+                bytes[col] = (byte) value;
+                break;
+            case 2:
+                bytes[2 * col] = (byte) (value >>> 8);
+                bytes[2 * col + 1] = (byte) value;
+                break;
+            default:
+                int i = 4 * col;
+                bytes[i] = (byte) (value >>> 24);
+                bytes[i + 1] = (byte) (value >>> 16);
+                bytes[i + 2] = (byte) (value >>> 8);
+                bytes[i + 3] = (byte) value;
+        }
+    }
+
+    /**
+     * Writes the first length values of a row as raw bytes, entries past the end of the row are written empty
+     *
+     * @param row index of the row
+     * @param length number of values to write
+     * @param out stream to write to
+     * @throws IOException if the stream can not be written
+     */
+    public void writeRow(int row, int length, DataOutput out) throws IOException {
+        byte[] bytes = rows[row];
+        int stored = Math.min(bytes.length, length * width);
+        out.write(bytes, 0, stored);
+        for (int i = stored; i < length * width; i++) {
+            out.write(0xFF);
+        }
+    }
+
+    /*
+     * copy of bytes holding length values, padded with empty entries
+     */
+    private byte[] resized(byte[] bytes, int length) {
+        byte[] copy = Arrays.copyOf(bytes, length * width);
+        Arrays.fill(copy, bytes.length, copy.length, (byte) 0xFF);
+        return copy;
+    }
+
+    /**
+     * @return largest value that can be stored
+     */
+    public int maxValue() {
+        return width == 4 ? Integer.MAX_VALUE : empty - 1;
+    }
+
+    /**
+     * @return bytes per value
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * @return number of rows
+     */
+    public int rowCount() {
+        return rows.length;
+    }
+}
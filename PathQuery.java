@@ -0,0 +1,39 @@
+/**
+ * Pair of words to find the shortest path between, for batches of queries
+ * {@link GraphProcessor#getShortestPaths(java.util.Collection, java.util.concurrent.Executor, boolean)}.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class PathQuery {
+    private final String word1;
+    private final String word2;
+
+    /*
+     * @param   word1   word the path starts from
+     * @param   word2   word the path goes to
+     */
+    public PathQuery(String word1, String word2) {
+        this.word1 = word1;
+        this.word2 = word2;
+    }
+
+    /**
+     * @return word the path starts from
+     */
+    public String word1() {
+        return word1;
+    }
+
+    /**
+     * @return word the path goes to
+     */
+    public String word2() {
+        return word2;
+    }
+
+    @Override
+    public String toString() {
+        return word1 + " -> " + word2;
+    }
+}
@@ -0,0 +1,61 @@
+import java.util.List;
+
+/**
+ * Answer to one {@link PathQuery} of a batch, holding what {@link GraphProcessor#getShortestPath(String, String)}
+ * and {@link GraphProcessor#getShortestDistance(String, String)} return for it.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class PathResult {
+    private final PathQuery query;
+    private final int index;
+    private final List<String> path;
+    private final Integer distance;
+
+    /*
+     * @param   query       query answered
+     * @param   index       position of the query in the batch
+     * @param   path        words of the shortest path, empty if there is none
+     * @param   distance    length of the shortest path, Integer.MAX_VALUE if there is none, null if a word is unknown
+     */
+    PathResult(PathQuery query, int index, List<String> path, Integer distance) {
+        this.query = query;
+        this.index = index;
+        this.path = path;
+        this.distance = distance;
+    }
+
+    /**
+     * @return query answered
+     */
+    public PathQuery query() {
+        return query;
+    }
+
+    /**
+     * @return position of the query in the batch it came from
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * @return words of the shortest path, empty if there is none or a word is not in the graph
+     */
+    public List<String> path() {
+        return path;
+    }
+
+    /**
+     * @return length of the shortest path, Integer.MAX_VALUE if there is none, null if a word is not in the graph
+     */
+    public Integer distance() {
+        return distance;
+    }
+
+    @Override
+    public String toString() {
+        return query + " = " + path;
+    }
+}
@@ -0,0 +1,268 @@
+import java.util.Arrays;
+
+/**
+ * Exact distance index by pruned landmark labeling, for graphs too large for a table over every pair.
+ *
+ * Every vertex gets a label, a list of (hub, distance) pairs, such that any two connected vertices share
+ * a hub on one of their shortest paths. The distance between two vertices is then the smallest sum of
+ * their distances to a common hub, found by merging their labels, which are sorted by hub.
+ *
+ * Labels are built by one breadth first search per vertex, from the highest degree vertex down. A search
+ * stops expanding at any vertex whose distance is already answered by the labels built so far, so high degree
+ * hubs cover most pairs early and later searches stay small, keeping labels short for graphs like word ladders.
+ *
+ * Every label entry also keeps the neighbor one step closer to its hub. That neighbor was expanded by the
+ * same search, so it has an entry for the hub as well, and paths are rebuilt by following them to the hub.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class PrunedLandmarkLabels implements ShortestPathEngine {
+    private final int[] offsets; //label of v is entries offsets[v] to offsets[v + 1] - 1
+    private final int[] hubs; //rank of the hub of every entry, ascending within a label
+    private final int[] distances; //distance to the hub of every entry
+    private final int[] parents; //neighbor one step closer to the hub of every entry, -1 for the hub itself
+
+    private PrunedLandmarkLabels(int[] offsets, int[] hubs, int[] distances, int[] parents) {
+        this.offsets = offsets;
+        this.hubs = hubs;
+        this.distances = distances;
+        this.parents = parents;
+    }
+
+    /**
+     * Builds the labels of every vertex of a graph
+     *
+     * @param graph graph to index
+     * @return labels of the graph
+     */
+    public static PrunedLandmarkLabels build(CsrGraph<?> graph) {
+        int n = graph.size();
+        int[] order = rankByDegree(graph);
+        Labels labels = new Labels(n);
+
+        int[] rootDistance = new int[n]; //hub rank -> distance from the current root, through the label of the root
+        int[] distance = new int[n];
+        int[] parent = new int[n];
+        int[] queue = new int[n];
+        Arrays.fill(rootDistance, UNREACHABLE);
+        Arrays.fill(distance, UNREACHABLE);
+        for (int rank = 0; rank < order.length; rank++) {
+            int root = order[rank];
+            for (int i = 0; i < labels.length[root]; i++) {
+                rootDistance[labels.hubs[root][i]] = labels.distances[root][i];
+            }
+
+            distance[root] = 0;
+            parent[root] = -1;
+            queue[0] = root;
+            int head = 0;
+            int tail = 1;
+            while (head < tail) {
+                int u = queue[head++];
+                int d = distance[u];
+                if (labels.covers(u, d, rootDistance)) {
+                    continue; //pairs through u are already answered by earlier hubs
+                }
+                labels.append(u, rank, d, parent[u]);
+                for (int e = graph.edgeStart(u), end = graph.edgeEnd(u); e < end; e++) {
+                    int v = graph.edgeTarget(e);
+                    if (distance[v] == UNREACHABLE) {
+                        distance[v] = d + 1;
+                        parent[v] = u;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+
+            //only the entries this search touched are reset
+            for (int i = 0; i < tail; i++) {
+                distance[queue[i]] = UNREACHABLE;
+            }
+            for (int i = 0; i < labels.length[root]; i++) {
+                rootDistance[labels.hubs[root][i]] = UNREACHABLE;
+            }
+        }
+        return labels.flatten();
+    }
+
+    /*
+     * ids of the vertices in use, highest degree first and lowest id first among equal degrees
+     */
+    private static int[] rankByDegree(CsrGraph<?> graph) {
+        int n = graph.size();
+        long[] keys = new long[graph.vertexCount()];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            if (graph.vertex(v) != null) {
+                keys[count++] = (long) (Integer.MAX_VALUE - graph.degree(v)) << 32 | v;
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    @Override
+    public int distance(int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        long best = meet(from, to);
+        return best == -1 ? UNREACHABLE : (int) (best >>> 32);
+    }
+
+    @Override
+    public int[] path(int from, int to) {
+        if (from == to) {
+            return new int[] {from};
+        }
+        long best = meet(from, to);
+        if (best == -1) {
+            return null;
+        }
+        int d = (int) (best >>> 32);
+        int hub = (int) best;
+        int[] path = new int[d + 1];
+        //from walks up to the hub, to walks up to the hub from the other end
+        int i = 0;
+        for (int v = from; v != -1; v = parents[entry(v, hub)]) {
+            path[i++] = v;
+        }
+        int j = d;
+        for (int v = to; j >= i; v = parents[entry(v, hub)]) {
+            path[j--] = v;
+        }
+        return path;
+    }
+
+    @Override
+    public boolean answersDirectly() {
+        return true;
+    }
+
+    /*
+     * merges the labels of a and b, which are sorted by hub rank
+     * @return shortest distance through a common hub in the upper 32 bits and that hub's rank in the lower, -1 if there is none
+     */
+    private long meet(int a, int b) {
+        int i = offsets[a];
+        int iEnd = offsets[a + 1];
+        int j = offsets[b];
+        int jEnd = offsets[b + 1];
+        int best = UNREACHABLE;
+        int bestHub = -1;
+        while (i < iEnd && j < jEnd) {
+            if (hubs[i] < hubs[j]) {
+                i++;
+            } else if (hubs[i] > hubs[j]) {
+                j++;
+            } else {
+                int d = distances[i] + distances[j];
+                if (d < best) {
+                    best = d;
+                    bestHub = hubs[i];
+                }
+                i++;
+                j++;
+            }
+        }
+        return bestHub == -1 ? -1 : (long) best << 32 | bestHub;
+    }
+
+    /*
+     * position of the entry for a hub in the label of v, which must have one
+     */
+    private int entry(int v, int hub) {
+        return Arrays.binarySearch(hubs, offsets[v], offsets[v + 1], hub);
+    }
+
+    /**
+     * @param v id of a vertex
+     * @return number of hubs in the label of v
+     */
+    public int labelSize(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * @return number of entries in all labels
+     */
+    public long totalLabelSize() {
+        return hubs.length;
+    }
+
+    /*
+     * labels while they are being built, a growable array per vertex
+     */
+    private static class Labels {
+        private final int[][] hubs;
+        private final int[][] distances;
+        private final int[][] parents;
+        private final int[] length;
+        private long total;
+
+        Labels(int n) {
+            hubs = new int[n][];
+            distances = new int[n][];
+            parents = new int[n][];
+            length = new int[n];
+            int[] empty = new int[0];
+            Arrays.fill(hubs, empty);
+            Arrays.fill(distances, empty);
+            Arrays.fill(parents, empty);
+        }
+
+        /*
+         * true if a hub already in the label of v is at most d from the root, through rootDistance
+         */
+        boolean covers(int v, int d, int[] rootDistance) {
+            int[] h = hubs[v];
+            int[] dist = distances[v];
+            for (int i = 0; i < length[v]; i++) {
+                int r = rootDistance[h[i]];
+                if (r != UNREACHABLE && r + dist[i] <= d) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void append(int v, int hub, int distance, int parent) {
+            int len = length[v];
+            if (len == hubs[v].length) {
+                int capacity = Math.max(4, len * 2);
+                hubs[v] = Arrays.copyOf(hubs[v], capacity);
+                distances[v] = Arrays.copyOf(distances[v], capacity);
+                parents[v] = Arrays.copyOf(parents[v], capacity);
+            }
+            hubs[v][len] = hub;
+            distances[v][len] = distance;
+            parents[v][len] = parent;
+            length[v] = len + 1;
+            total++;
+        }
+
+        /*
+         * lays every label out back to back
+         */
+        PrunedLandmarkLabels flatten() {
+            int n = length.length;
+            int[] offsets = new int[n + 1];
+            int[] flatHubs = new int[Math.toIntExact(total)];
+            int[] flatDistances = new int[flatHubs.length];
+            int[] flatParents = new int[flatHubs.length];
+            for (int v = 0; v < n; v++) {
+                int start = offsets[v];
+                System.arraycopy(hubs[v], 0, flatHubs, start, length[v]);
+                System.arraycopy(distances[v], 0, flatDistances, start, length[v]);
+                System.arraycopy(parents[v], 0, flatParents, start, length[v]);
+                offsets[v + 1] = start + length[v];
+            }
+            return new PrunedLandmarkLabels(offsets, flatHubs, flatDistances, flatParents);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable version of the words and shortest path data of a {@link GraphProcessor}, answering queries
+ * on its own. The processor publishes a new snapshot after every change, so a query that started on
+ * a snapshot keeps reading it, consistent from start to end, while a reload builds the next one.
+ *
+ * Engines of older snapshots stay valid after newer ones are built from them, see
+ * {@link CompactPathStore#extend(CompactPathStore, CsrGraph)}.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class QuerySnapshot {
+    private final long version;
+    private final CsrGraph<String> words; //ids of the words, as used by the engine
+    private final ShortestPathEngine engine; //null until paths were computed, words is empty then
+    private final ComponentIndex components; //answers pairs in different components without asking the engine
+
+    /*
+     * @param   version     number of snapshots published before this one
+     * @param   words       graph the engine answers on, not changed after this
+     * @param   engine      engine answering on the ids of words
+     * @param   components  components of words
+     */
+    QuerySnapshot(long version, CsrGraph<String> words, ShortestPathEngine engine, ComponentIndex components) {
+        this.version = version;
+        this.words = words;
+        this.engine = engine;
+        this.components = components;
+    }
+
+    /**
+     * @return number of snapshots published before this one, later snapshots have larger versions
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return connected components of the words, indexed by the ids of the snapshot
+     */
+    public ComponentIndex components() {
+        return components;
+    }
+
+    /**
+     * @param word word to look up
+     * @return connected component of the word {@link ComponentIndex}, -1 if it is not in the snapshot
+     */
+    public int componentOf(String word) {
+        int id = words.idOf(word);
+        return id == -1 ? -1 : components.componentOf(id);
+    }
+
+    /**
+     * @return number of words in the snapshot
+     */
+    public int vertexCount() {
+        return words.vertexCount();
+    }
+
+    /**
+     * Gets the list of words that create the shortest path between word1 and word2
+     *
+     * @param word1 first word
+     * @param word2 second word
+     * @return List<String> list of the words, empty if either word is not in the snapshot or there is no path
+     */
+    public List<String> getShortestPath(String word1, String word2) {
+        List<String> list = new ArrayList<>();
+        if (word1 == null || word2 == null || word1 == "" || word2 == "") {
+            return list;
+        }
+
+        if (word1.equals(word2)) {
+            list.add(word1);
+            return list;
+        }
+
+        //words are resolved to ids once, so each hop below is a constant time lookup
+        int id1 = words.idOf(word1);
+        int id2 = words.idOf(word2);
+        if (id1 == -1 || id2 == -1) { //words not in graph have no path
+            return list;
+        }
+
+        if (!components.connected(id1, id2)) { //no path, known without searching
+            return list;
+        }
+
+        int[] path = engine.path(id1, id2);
+        if (path != null) {
+            for (int id : path) {
+                list.add(words.vertex(id));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Gets the distance of the shortest path between word1 and word2
+     *
+     * @param word1 first word
+     * @param word2 second word
+     * @return Integer distance, Integer.MAX_VALUE if there is no path, null if either word is not in the snapshot
+     */
+    public Integer getShortestDistance(String word1, String word2) {
+        if (word1 == null || word2 == null || word1 == "" || word2 == "") {
+            return null;
+        }
+        int id1 = words.idOf(word1);
+        int id2 = words.idOf(word2);
+        if (id1 == -1 || id2 == -1) { //words not in graph have no distance
+            return null;
+        }
+        return components.connected(id1, id2) ? engine.distance(id1, id2) : ShortestPathEngine.UNREACHABLE;
+    }
+
+    /**
+     * Gets the distance from a word to every other word with one search
+     *
+     * @param word word to measure distances from
+     * @return distances and paths from the word, null if it is not in the snapshot
+     */
+    public SourceDistances getShortestDistances(String word) {
+        int source = words.idOf(word);
+        if (source == -1) {
+            return null;
+        }
+        //engines that keep the trees they search hand out a cached one
+        return new SourceDistances(words, engine.tree(words, source));
+    }
+
+    /**
+     * Answers a batch of queries on an executor. Queries are grouped by their first word and every group
+     * runs as one task, so engines that search share one search tree per word {@link ShortestPathTree}
+     * instead of searching once per query.
+     *
+     * @param queries pairs of words to find paths between
+     * @param executor runs the groups of queries
+     * @param inputOrder true to stream results in the order of the queries, false to stream each group
+     *        as soon as it is answered
+     * @return stream of one result per query, computed in the background and waited for as it is read
+     */
+    public Stream<PathResult> getShortestPaths(Collection<PathQuery> queries, Executor executor, boolean inputOrder) {
+        PathQuery[] batch = queries.toArray(new PathQuery[0]);
+        //queries with an unknown word are answered together, from source -1
+        HashMap<Integer, List<Integer>> groups = new HashMap<>();
+        for (int i = 0; i < batch.length; i++) {
+            int source = words.idOf(batch[i].word1());
+            int target = words.idOf(batch[i].word2());
+            groups.computeIfAbsent(source == -1 || target == -1 ? -1 : source, k -> new ArrayList<>()).add(i);
+        }
+
+        List<CompletableFuture<PathResult[]>> futures = new ArrayList<>();
+        int[] groupOf = new int[batch.length];
+        int[] positionInGroup = new int[batch.length];
+        BlockingQueue<CompletableFuture<PathResult[]>> done = new LinkedBlockingQueue<>();
+        for (Map.Entry<Integer, List<Integer>> group : groups.entrySet()) {
+            List<Integer> indices = group.getValue();
+            for (int position = 0; position < indices.size(); position++) {
+                groupOf[indices.get(position)] = futures.size();
+                positionInGroup[indices.get(position)] = position;
+            }
+            CompletableFuture<PathResult[]> future =
+                    CompletableFuture.supplyAsync(() -> answer(group.getKey(), indices, batch), executor);
+            future.whenComplete((results, e) -> done.add(future));
+            futures.add(future);
+        }
+
+        if (inputOrder) {
+            return IntStream.range(0, batch.length).mapToObj(i -> futures.get(groupOf[i]).join()[positionInGroup[i]]);
+        }
+        return Stream.generate(() -> {
+            try {
+                return done.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }).limit(futures.size()).flatMap(future -> Arrays.stream(future.join()));
+    }
+
+    /*
+     * answers the queries at the given indices, which all start from source
+     */
+    private PathResult[] answer(int source, List<Integer> indices, PathQuery[] batch) {
+        PathResult[] results = new PathResult[indices.size()];
+        //precomputed engines answer each query directly, searching engines share one tree per source
+        ShortestPathTree tree = null;
+        if (source != -1 && indices.size() > 1 && !engine.answersDirectly()) {
+            tree = engine.tree(words, source);
+        }
+        for (int position = 0; position < results.length; position++) {
+            int i = indices.get(position);
+            PathQuery query = batch[i];
+            if (tree == null) {
+                results[position] = new PathResult(query, i,
+                        getShortestPath(query.word1(), query.word2()), getShortestDistance(query.word1(), query.word2()));
+            } else {
+                int target = words.idOf(query.word2());
+                List<String> path = new ArrayList<>();
+                int[] ids = tree.pathTo(target);
+                for (int id = 0; ids != null && id < ids.length; id++) {
+                    path.add(words.vertex(ids[id]));
+                }
+                results[position] = new PathResult(query, i, path, tree.distance(target));
+            }
+        }
+        return results;
+    }
+
+}
@@ -0,0 +1,55 @@
+/**
+ * Answers shortest path queries between vertices identified by their dense ids {@link VertexIndex}.
+ * 
+ * Implementations either precompute paths up front or search the graph when asked,
+ * see {@link GraphProcessor.QueryMode} for the ones available.
+ * 
+ * @author jchen678 (jchen678@wisc.edu)
+ * 
+ */
+public interface ShortestPathEngine {
+
+    /**
+     * Distance returned for vertices that can not reach each other
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /**
+     * Gets the distance of the shortest path between two vertices
+     * 
+     * @param from id of the first vertex
+     * @param to id of the second vertex
+     * @return number of edges on the shortest path, {@link #UNREACHABLE} if there is none
+     */
+    public int distance(int from, int to);
+
+    /**
+     * Gets the vertices of the shortest path between two vertices
+     * 
+     * @param from id of the first vertex
+     * @param to id of the second vertex
+     * @return ids of the vertices on the path, starting with from and ending with to, null if there is no path
+     */
+    public int[] path(int from, int to);
+
+    /**
+     * Tells whether queries are answered from stored paths without searching the graph. A batch of queries
+     * from one source is then answered query by query instead of sharing one search tree.
+     * 
+     * @return true if {@link #distance(int, int)} and {@link #path(int, int)} never search, false by default
+     */
+    public default boolean answersDirectly() {
+        return false;
+    }
+
+    /**
+     * Gets the tree of shortest paths from a source, searching the graph unless the engine already keeps it
+     * 
+     * @param graph graph the engine answers queries on
+     * @param source id of the source vertex
+     * @return tree of shortest paths from source
+     */
+    public default ShortestPathTree tree(CsrGraph<?> graph, int source) {
+        return ShortestPathTree.search(graph, source);
+    }
+}
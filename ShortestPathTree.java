@@ -0,0 +1,113 @@
+import java.util.Arrays;
+
+/**
+ * Breadth first search tree of every vertex reachable from one source vertex.
+ * Stores the distance from the source and the parent (next vertex towards the source) of each vertex,
+ * indexed by vertex id.
+ * 
+ * @author jchen678 (jchen678@wisc.edu)
+ * 
+ */
+public class ShortestPathTree {
+    private final int source;
+    private final int[] distance; //distance from source, ShortestPathEngine.UNREACHABLE if not reachable
+    private final int[] parent; //previous vertex on the path from source, -1 for source and unreachable vertices
+
+    private ShortestPathTree(int source, int[] distance, int[] parent) {
+        this.source = source;
+        this.distance = distance;
+        this.parent = parent;
+    }
+
+    /**
+     * Runs a breadth first search from source
+     * 
+     * @param graph graph to search
+     * @param source id of the source vertex
+     * @return tree of shortest paths from source
+     */
+    public static ShortestPathTree search(CsrGraph<?> graph, int source) {
+        int n = graph.size();
+        int[] distance = new int[n];
+        int[] parent = new int[n];
+        int[] queue = new int[n];
+        Arrays.fill(distance, ShortestPathEngine.UNREACHABLE);
+        Arrays.fill(parent, -1);
+        distance[source] = 0;
+        queue[0] = source;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int e = graph.edgeStart(u), end = graph.edgeEnd(u); e < end; e++) {
+                int v = graph.edgeTarget(e);
+                if (distance[v] == ShortestPathEngine.UNREACHABLE) {
+                    distance[v] = distance[u] + 1;
+                    parent[v] = u;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return new ShortestPathTree(source, distance, parent);
+    }
+
+    /**
+     * @return id of the source vertex
+     */
+    public int source() {
+        return source;
+    }
+
+    /**
+     * @param target id of a vertex
+     * @return distance from source to target, {@link ShortestPathEngine#UNREACHABLE} if there is no path
+     */
+    public int distance(int target) {
+        return distance[target];
+    }
+
+    /**
+     * @param target id of a vertex
+     * @return id of the vertex before target on the path from source, -1 for source and unreachable vertices
+     */
+    public int parent(int target) {
+        return parent[target];
+    }
+
+    /**
+     * @param target id of a vertex
+     * @return ids of the path from source to target, null if there is no path
+     */
+    public int[] pathTo(int target) {
+        if (distance[target] == ShortestPathEngine.UNREACHABLE) {
+            return null;
+        }
+        int[] path = new int[distance[target] + 1];
+        for (int i = path.length - 1, v = target; i >= 0; i--, v = parent[v]) {
+            path[i] = v;
+        }
+        return path;
+    }
+
+    /**
+     * @param target id of a vertex
+     * @return ids of the path from target to source, null if there is no path
+     */
+    public int[] pathFrom(int target) {
+        if (distance[target] == ShortestPathEngine.UNREACHABLE) {
+            return null;
+        }
+        int[] path = new int[distance[target] + 1];
+        for (int i = 0, v = target; i < path.length; i++, v = parent[v]) {
+            path[i] = v;
+        }
+        return path;
+    }
+
+    /**
+     * @return number of vertices the tree has entries for
+     */
+    public int size() {
+        return distance.length;
+    }
+}
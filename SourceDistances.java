@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Distances from one word to every other word, from a single breadth first search {@link ShortestPathTree}.
+ * Distances and parents are int arrays indexed by vertex id, and paths to any word are read back
+ * from the parents without searching again.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class SourceDistances {
+    private final CsrGraph<String> words; //ids of the words
+    private final ShortestPathTree tree;
+
+    /*
+     * @param   words   graph the tree was searched on
+     * @param   tree    tree of the source word
+     */
+    SourceDistances(CsrGraph<String> words, ShortestPathTree tree) {
+        this.words = words;
+        this.tree = tree;
+    }
+
+    /**
+     * @return word the distances are measured from
+     */
+    public String source() {
+        return words.vertex(tree.source());
+    }
+
+    /**
+     * @param word word to look up
+     * @return id of the word, -1 if it is not in the graph
+     */
+    public int idOf(String word) {
+        return words.idOf(word);
+    }
+
+    /**
+     * @param id id of a vertex
+     * @return word with the given id, null if the id is unused
+     */
+    public String word(int id) {
+        return words.vertex(id);
+    }
+
+    /**
+     * @param id id of a vertex
+     * @return distance from the source, {@link ShortestPathEngine#UNREACHABLE} if there is no path
+     */
+    public int distance(int id) {
+        return tree.distance(id);
+    }
+
+    /**
+     * @param id id of a vertex
+     * @return id of the vertex before it on the path from the source, -1 for the source and unreachable vertices
+     */
+    public int parent(int id) {
+        return tree.parent(id);
+    }
+
+    /**
+     * @param word word to look up
+     * @return distance from the source, Integer.MAX_VALUE if there is no path, null if the word is not in the graph
+     */
+    public Integer distance(String word) {
+        int id = words.idOf(word);
+        return id == -1 ? null : tree.distance(id);
+    }
+
+    /**
+     * @param word word the path goes to
+     * @return words of a shortest path from the source to word, empty if there is none or the word is not in the graph
+     */
+    public List<String> pathTo(String word) {
+        List<String> path = new ArrayList<>();
+        int id = words.idOf(word);
+        int[] ids = id == -1 ? null : tree.pathTo(id);
+        for (int i = 0; ids != null && i < ids.length; i++) {
+            path.add(words.vertex(ids[i]));
+        }
+        return path;
+    }
+
+    /**
+     * @return ids of every vertex reachable from the source, including the source, in id order
+     */
+    public IntStream reachable() {
+        return IntStream.range(0, tree.size()).filter(id -> tree.distance(id) != ShortestPathEngine.UNREACHABLE);
+    }
+
+    /**
+     * Passes every reachable word and its distance to an action, without boxing the distances
+     *
+     * @param action called with each word reachable from the source and its distance
+     */
+    public void forEachReachable(ObjIntConsumer<String> action) {
+        for (int id = 0; id < tree.size(); id++) {
+            if (tree.distance(id) != ShortestPathEngine.UNREACHABLE) {
+                action.accept(words.vertex(id), tree.distance(id));
+            }
+        }
+    }
+
+    /**
+     * @return number of vertex ids, the upper bound of ids passed to {@link #distance(int)}
+     */
+    public int size() {
+        return tree.size();
+    }
+}
@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Dense dictionary between vertices and int ids. Ids are handed out in insertion order
+ * starting from 0, so they can be used directly as indices into arrays and matrices.
+ * 
+ * Removing a vertex leaves its id unused rather than shifting the ids after it,
+ * so data indexed by id stays valid.
+ *
+ * @param <E> type of a vertex
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class VertexIndex<E> {
+    private ArrayList<E> vertices; //id -> vertex
+    private HashMap<E, Integer> ids; //vertex -> id
+    private int removed; //ids left unused by removed vertices
+
+    public VertexIndex() {
+        vertices = new ArrayList<>();
+        ids = new HashMap<>();
+    }
+
+    /*
+     * @param   other   index to copy ids from
+     */
+    public VertexIndex(VertexIndex<E> other) {
+        vertices = new ArrayList<>(other.vertices);
+        ids = new HashMap<>(other.ids);
+        removed = other.removed;
+    }
+
+    /*
+     * @param   vertices    vertices to assign ids to, in iteration order
+     */
+    public VertexIndex(Iterable<E> vertices) {
+        this();
+        for (E vertex : vertices) {
+            add(vertex);
+        }
+    }
+
+    /**
+     * Assigns the next id to a vertex if it does not have one yet
+     *
+     * @param vertex vertex to add
+     * @return id of the vertex, -1 if vertex is null
+     */
+    public int add(E vertex) {
+        if (vertex == null) {
+            return -1;
+        }
+        Integer id = ids.get(vertex);
+        if (id == null) {
+            id = vertices.size();
+            ids.put(vertex, id);
+            vertices.add(vertex);
+        }
+        return id;
+    }
+
+    /**
+     * Hands out the next id without a vertex, leaving it unused as if its vertex was removed
+     *
+     * @return the unused id
+     */
+    public int reserve() {
+        vertices.add(null);
+        removed++;
+        return vertices.size() - 1;
+    }
+
+    /**
+     * Removes a vertex, its id is not handed out again
+     *
+     * @param vertex vertex to remove
+     * @return id the vertex had, -1 if it had no id
+     */
+    public int remove(E vertex) {
+        Integer id = vertex == null ? null : ids.remove(vertex);
+        if (id == null) {
+            return -1;
+        }
+        vertices.set(id, null);
+        removed++;
+        return id;
+    }
+
+    /**
+     * @param vertex vertex to look up
+     * @return id of the vertex, -1 if the vertex has no id
+     */
+    public int idOf(E vertex) {
+        if (vertex == null) {
+            return -1;
+        }
+        Integer id = ids.get(vertex);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id id of a vertex
+     * @return vertex with the given id, null if it was removed
+     */
+    public E get(int id) {
+        return vertices.get(id);
+    }
+
+    /**
+     * @return number of ids handed out, including those of removed vertices
+     */
+    public int size() {
+        return vertices.size();
+    }
+
+    /**
+     * @return number of vertices with an id
+     */
+    public int vertexCount() {
+        return vertices.size() - removed;
+    }
+}
@@ -0,0 +1,178 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Index of dictionary words that finds every word adjacent to a new word
+ * (as defined by {@link WordProcessor#isAdjacent(String, String)}) without
+ * comparing it against the whole dictionary.
+ *
+ * Two kinds of keys are kept for every word added:
+ *  - wildcard patterns, the word with one position blanked out (CAT -> _AT, C_T, CA_),
+ *    shared by all words of the same length that differ in that one position (1 char replacement)
+ *  - deletion keys, the word with one char removed (CAT -> AT, CT, CA),
+ *    which equal the words that are one char shorter (1 char addition / deletion)
+ *
+ * Looking a word up therefore costs O(length) bucket probes instead of O(n) comparisons.
+ *
+ * @author jchen678 (jchen678@wisc.edu)
+ *
+ */
+public class WordAdjacencyIndex {
+    private HashMap<String, ArrayList<String>> patternBuckets; //wildcard pattern -> words of same length matching it
+    private HashMap<String, ArrayList<String>> deletionBuckets; //deletion key -> longer words that produce it
+    private HashSet<String> words; //every word added so far
+
+    public WordAdjacencyIndex() {
+        patternBuckets = new HashMap<>();
+        deletionBuckets = new HashMap<>();
+        words = new HashSet<>();
+    }
+
+    /*
+     * @param   words   words to index, without looking up their neighbors
+     */
+    public WordAdjacencyIndex(Iterable<String> words) {
+        this();
+        addAll(words);
+    }
+
+    /**
+     * Adds a word to the index and returns the previously added words adjacent to it.
+     *
+     * @param word word to add
+     * @return list of adjacent words already in the index, empty if word is null, empty or already indexed
+     */
+    public List<String> add(String word) {
+        if (word == null || words.contains(word)) {
+            return new ArrayList<>();
+        }
+        List<String> neighbors = neighborsOf(word);
+        index(word);
+        return neighbors;
+    }
+
+    /**
+     * Adds words to the index without looking up their neighbors, for when they are found
+     * later with {@link #neighborsOf(String)}
+     *
+     * @param words words to add, null, empty or already indexed words are skipped
+     */
+    public void addAll(Iterable<String> words) {
+        for (String word : words) {
+            index(word);
+        }
+    }
+
+    /*
+     * adds word to its buckets unless it is null, empty or already indexed
+     */
+    private void index(String word) {
+        if (word == null || word.isEmpty() || !words.add(word)) {
+            return;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            patternBuckets.computeIfAbsent(pattern(word, i), k -> new ArrayList<>()).add(word);
+        }
+        for (String key : deletions(word)) {
+            deletionBuckets.computeIfAbsent(key, k -> new ArrayList<>()).add(word);
+        }
+    }
+
+    /**
+     * Removes a word from the index, so it is no longer found as a neighbor of other words
+     *
+     * @param word word to remove
+     * @return true if the word was indexed
+     */
+    public boolean remove(String word) {
+        if (word == null || !words.remove(word)) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            removeFromBucket(patternBuckets, pattern(word, i), word);
+        }
+        for (String key : deletions(word)) {
+            removeFromBucket(deletionBuckets, key, word);
+        }
+        return true;
+    }
+
+    /**
+     * Finds all indexed words adjacent to the given word, without adding it.
+     *
+     * @param word word to look up
+     * @return list of adjacent indexed words
+     */
+    public List<String> neighborsOf(String word) {
+        List<String> neighbors = new ArrayList<>();
+        if (word == null || word.isEmpty()) {
+            return neighbors;
+        }
+        //same length, one char replaced
+        for (int i = 0; i < word.length(); i++) {
+            ArrayList<String> bucket = patternBuckets.get(pattern(word, i));
+            if (bucket != null) {
+                for (String candidate : bucket) {
+                    if (!candidate.equals(word)) { //every other word in the bucket differs in exactly position i
+                        neighbors.add(candidate);
+                    }
+                }
+            }
+        }
+        //one char shorter, word is a deletion away from them
+        for (String key : deletions(word)) {
+            if (words.contains(key)) {
+                neighbors.add(key);
+            }
+        }
+        //one char longer, they are a deletion away from word
+        ArrayList<String> longer = deletionBuckets.get(word);
+        if (longer != null) {
+            neighbors.addAll(longer);
+        }
+        return neighbors;
+    }
+
+    /**
+     * @return number of words in the index
+     */
+    public int size() {
+        return words.size();
+    }
+
+    /*
+     * removes word from the bucket under key, dropping the bucket once it is empty
+     */
+    private static void removeFromBucket(HashMap<String, ArrayList<String>> buckets, String key, String word) {
+        ArrayList<String> bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.remove(word);
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    /*
+     * wildcard pattern of word, with position i blanked out.
+     * position is encoded in the key so that words containing the wildcard char cannot collide
+     */
+    private static String pattern(String word, int i) {
+        return i + ":" + word.substring(0, i) + word.substring(i + 1);
+    }
+
+    /*
+     * distinct strings made by removing a single char from word
+     */
+    private static HashSet<String> deletions(String word) {
+        HashSet<String> keys = new HashSet<>();
+        if (word.length() > 1) {
+            for (int i = 0; i < word.length(); i++) {
+                keys.add(word.substring(0, i) + word.substring(i + 1));
+            }
+        }
+        return keys;
+    }
+}
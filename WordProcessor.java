@@ -76,6 +76,19 @@ public class WordProcessor {
 		return wordStream;
 	}
 	
+	/**
+	 * Gets a Stream of the same words as {@link #getWordStream(String)}, read by scanning the bytes
+	 * of the memory mapped file instead of decoding it line by line {@link MappedWordReader}.
+	 * 
+	 * @param filepath file path to the dictionary file
+	 * @param parallel true to split the file across cores, the stream is still ordered
+	 * @return Stream<String> stream of words read from the filepath
+	 * @throws IOException exception resulting from accessing the filepath
+	 */
+	public static Stream<String> getWordStream(String filepath, boolean parallel) throws IOException {
+		return MappedWordReader.words(Paths.get(filepath), parallel);
+	}
+	
 	/**
 	 * Adjacency between word1 and word2 is defined by:
 	 * if the difference between word1 and word2 is of
@@ -147,4 +160,55 @@ public class WordProcessor {
 			return true;
 		}	
 	}
+	
+	/**
+	 * Levenshtein distance between two words, the number of 1 char replacements, additions and deletions
+	 * needed to turn one into the other. Since adjacent words are exactly 1 such edit apart
+	 * {@link #isAdjacent(String, String)}, this is never more than the length of a word ladder between them.
+	 * 
+	 * Only distances up to max are computed exactly. Cells of the table further than max from its diagonal
+	 * can not lead to a distance within max, so each row only fills a band of 2 * max + 1 cells and
+	 * the computation stops as soon as a whole row is past max. Allocates nothing.
+	 * 
+	 * @param word1 first word
+	 * @param word2 second word
+	 * @param max largest distance of interest, at least 0
+	 * @param row scratch space, at least word2.length() + 1 long
+	 * @return distance between the words, or max + 1 if it is more than max
+	 */
+	public static int editDistance(String word1, String word2, int max, int[] row) {
+		int n = word1.length();
+		int m = word2.length();
+		int over = max + 1;		// stands for every distance past max
+		if (Math.abs(n - m) > max) {
+			return over;
+		}
+		// row holds distances from the first i chars of word1 to the first j chars of word2
+		for (int j = 0; j <= m; j++) {
+			row[j] = Math.min(j, over);
+		}
+		for (int i = 1; i <= n; i++) {
+			int lo = Math.max(1, i - max);
+			int hi = Math.min(m, i + max);
+			int diagonal = row[lo - 1];		// distance for i - 1 and lo - 1
+			int left = lo == 1 ? Math.min(i, over) : over;
+			row[lo - 1] = left;
+			int rowMin = left;
+			char c = word1.charAt(i - 1);
+			for (int j = lo; j <= hi; j++) {
+				int up = row[j];
+				int d = diagonal + (c == word2.charAt(j - 1) ? 0 : 1);
+				d = Math.min(d, Math.min(up, left) + 1);
+				d = Math.min(d, over);
+				diagonal = up;
+				row[j] = d;
+				left = d;
+				rowMin = Math.min(rowMin, d);
+			}
+			if (rowMin == over) {
+				return over;
+			}
+		}
+		return row[m];
+	}
 }